@@ -0,0 +1,81 @@
+package unitbv.devops.authenticationapi.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import unitbv.devops.authenticationapi.config.JwtProperties;
+import unitbv.devops.authenticationapi.user.entity.Role;
+import unitbv.devops.authenticationapi.user.entity.User;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Set;
+
+// Test data shared by the JMH benchmarks: user i is "user<i>" / "user<i>@example.com"
+final class BenchmarkUsers {
+
+    static final String PASSWORD_HASH = "$2a$10$m/OedMROyY9NRbztfgz05OyNPPELehHwqKR4nWYHqo/9w9Whxs6Lu";
+
+    private BenchmarkUsers() {}
+
+    static ObjectMapper mapper() {
+        return JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+
+    static String id(int i) {
+        return String.format("00000000-0000-0000-0000-%012d", i);
+    }
+
+    static User user(int i) {
+        return User.builder()
+                .id(id(i))
+                .username("user" + i)
+                .email("user" + i + "@example.com")
+                .passwordHash(PASSWORD_HASH)
+                .roles(Set.of(Role.USER))
+                .createdAt(Instant.now())
+                .enabled(true)
+                .build();
+    }
+
+    static JwtProperties jwtProperties(boolean claimsOnlyAuth) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret("benchmark-secret");
+        properties.setAccessTokenExpirationMs(3_600_000);
+        properties.setRefreshTokenExpirationMs(604_800_000);
+        properties.setClaimsOnlyAuth(claimsOnlyAuth);
+        properties.setVerifiedCacheSize(10_000);
+        return properties;
+    }
+
+    // Streams the users straight to a users.json snapshot; saving them one by one would fsync each
+    static void writeJson(ObjectMapper mapper, Path path, int users) throws IOException {
+        try (JsonGenerator out = mapper.getFactory().createGenerator(Files.newOutputStream(path))) {
+            out.writeStartArray();
+            String now = Instant.now().toString();
+            for (int i = 0; i < users; i++) {
+                out.writeStartObject();
+                out.writeStringField("id", id(i));
+                out.writeStringField("username", "user" + i);
+                out.writeStringField("email", "user" + i + "@example.com");
+                out.writeStringField("passwordHash", PASSWORD_HASH);
+                out.writeArrayFieldStart("roles");
+                out.writeString(Role.USER.name());
+                out.writeEndArray();
+                out.writeStringField("createdAt", now);
+                out.writeBooleanField("enabled", true);
+                out.writeEndObject();
+            }
+            out.writeEndArray();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package unitbv.devops.authenticationapi.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import unitbv.devops.authenticationapi.config.JwtProperties;
+import unitbv.devops.authenticationapi.config.ReadReplicaProperties;
+import unitbv.devops.authenticationapi.config.ReadReplicaRouting;
+import unitbv.devops.authenticationapi.config.TokenCacheProperties;
+import unitbv.devops.authenticationapi.config.TokenWriteBehindProperties;
+import unitbv.devops.authenticationapi.token.TokenDigest;
+import unitbv.devops.authenticationapi.token.TokenEpochCache;
+import unitbv.devops.authenticationapi.token.TokenRepository;
+import unitbv.devops.authenticationapi.token.TokenState;
+import unitbv.devops.authenticationapi.token.TokenStateCache;
+import unitbv.devops.authenticationapi.token.TokenWriteBehind;
+import unitbv.devops.authenticationapi.user.entity.User;
+import unitbv.devops.authenticationapi.user.repository.UserRepository;
+import unitbv.devops.authenticationapi.user.service.JwtAuthFilter;
+import unitbv.devops.authenticationapi.user.service.JwtService;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// One authenticated request through the JWT filter, with the token state cache warm.
+// Users and token states live in maps; the mocked repositories are only hit on the first request.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+    @Param({"false", "true"})
+    public boolean claimsOnlyAuth;
+
+    private JwtAuthFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() {
+        JwtProperties jwtProperties = BenchmarkUsers.jwtProperties(claimsOnlyAuth);
+        JwtService jwtService = new JwtService(jwtProperties);
+        User user = BenchmarkUsers.user(42);
+        String accessToken = jwtService.generateAccessToken(user);
+
+        Map<String, User> usersByName = Map.of(user.getUsername(), user);
+        UserDetailsService userDetailsService = username -> {
+            User found = usersByName.get(username);
+            if (found == null) {
+                throw new UsernameNotFoundException(username);
+            }
+            return found;
+        };
+
+        Map<String, TokenState> statesByHash = Map.of(
+                TokenDigest.sha256Hex(accessToken), new TokenState(1L, false, user.getId()));
+        TokenRepository tokenRepository = mock(TokenRepository.class);
+        when(tokenRepository.findStateByAccessTokenHash(anyString()))
+                .thenAnswer(call -> Optional.ofNullable(statesByHash.get(call.<String>getArgument(0))));
+
+        TokenWriteBehind writeBehind = new TokenWriteBehind(tokenRepository, null, new TokenWriteBehindProperties());
+        ReadReplicaRouting readReplicaRouting = new ReadReplicaRouting(new ReadReplicaProperties());
+        TokenStateCache tokenStateCache = new TokenStateCache(tokenRepository, writeBehind, readReplicaRouting,
+                new TokenCacheProperties());
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findEnabledTokenEpochById(user.getId())).thenReturn(Optional.of(user.getTokenEpoch()));
+        TokenEpochCache tokenEpochCache = new TokenEpochCache(userRepository, readReplicaRouting,
+                new TokenCacheProperties());
+
+        filter = new JwtAuthFilter(jwtService, userDetailsService, tokenStateCache, tokenEpochCache, jwtProperties,
+                new SimpleMeterRegistry());
+        request = new MockHttpServletRequest("GET", "/api/auth/users");
+        request.addHeader("Authorization", "Bearer " + accessToken);
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> {};
+    }
+
+    @Benchmark
+    public Object doFilter() throws Exception {
+        // OncePerRequestFilter clears its "already filtered" marker on the way out, so the request is reusable
+        filter.doFilter(request, response, chain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        if (authentication == null) {
+            throw new IllegalStateException("Request was not authenticated: " + response.getStatus());
+        }
+        return authentication;
+    }
+}
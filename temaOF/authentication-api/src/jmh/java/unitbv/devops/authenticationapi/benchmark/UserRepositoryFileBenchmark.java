@@ -0,0 +1,100 @@
+package unitbv.devops.authenticationapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import unitbv.devops.authenticationapi.user.config.UserStorageProperties;
+import unitbv.devops.authenticationapi.user.entity.User;
+import unitbv.devops.authenticationapi.user.repository.impl.UserRepositoryFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Lookups against the file backend; the snapshot is generated once per user count
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserRepositoryFileBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int users;
+
+    @Param({"JSON", "BINARY"})
+    public UserStorageProperties.SnapshotFormat snapshotFormat;
+
+    private Path dir;
+    private UserRepositoryFile repository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper mapper = BenchmarkUsers.mapper();
+        dir = Files.createTempDirectory("users-repository-bench");
+        Path json = dir.resolve("users.json");
+        BenchmarkUsers.writeJson(mapper, json, users);
+
+        UserStorageProperties props = new UserStorageProperties();
+        props.setFilePath(json.toString());
+        props.setSnapshotFormat(snapshotFormat);
+        props.setBinaryFilePath(dir.resolve("users.bin").toString());
+        repository = new UserRepositoryFile(mapper, props);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Optional<User> findById() {
+        return repository.findById(BenchmarkUsers.id(randomUser()));
+    }
+
+    @Benchmark
+    public Optional<User> findByUsername() {
+        return repository.findByUsername("user" + randomUser());
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        return repository.findByEmail("user" + randomUser() + "@example.com");
+    }
+
+    @Benchmark
+    public Optional<User> findByUsernameOrEmail() {
+        return repository.findByUsernameOrEmail("user" + randomUser() + "@example.com");
+    }
+
+    @Benchmark
+    public boolean existsByUsernameMiss() {
+        return repository.existsByUsername("missing" + randomUser());
+    }
+
+    private int randomUser() {
+        return ThreadLocalRandom.current().nextInt(users);
+    }
+}
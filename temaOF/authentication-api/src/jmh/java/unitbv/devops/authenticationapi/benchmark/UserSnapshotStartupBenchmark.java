@@ -0,0 +1,79 @@
+package unitbv.devops.authenticationapi.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import unitbv.devops.authenticationapi.user.config.UserStorageProperties;
+import unitbv.devops.authenticationapi.user.entity.User;
+import unitbv.devops.authenticationapi.user.repository.impl.UserRepositoryFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Startup of the file backend, JSON vs binary (memory-mapped) snapshot: one shot is opening the
+// repository and the first lookup. Run with -prof gc to compare the heap each start allocates.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 3, jvmArgsAppend = "-Xmx4g")
+public class UserSnapshotStartupBenchmark {
+
+    @Param({"10000", "200000"})
+    public int users;
+
+    @Param({"JSON", "BINARY"})
+    public UserStorageProperties.SnapshotFormat snapshotFormat;
+
+    private Path dir;
+    private ObjectMapper mapper;
+    private UserStorageProperties props;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = BenchmarkUsers.mapper();
+        dir = Files.createTempDirectory("users-snapshot-bench");
+        Path json = dir.resolve("users.json");
+        BenchmarkUsers.writeJson(mapper, json, users);
+
+        props = new UserStorageProperties();
+        props.setFilePath(json.toString());
+        props.setSnapshotFormat(snapshotFormat);
+        props.setBinaryFilePath(dir.resolve("users.bin").toString());
+        // The first binary start converts users.json; only later starts are measured
+        new UserRepositoryFile(mapper, props).close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public Optional<User> startAndFirstLookup() {
+        try (UserRepositoryFile repository = new UserRepositoryFile(mapper, props)) {
+            return repository.findByUsername("user42");
+        }
+    }
+}
@@ -2,7 +2,9 @@ package unitbv.devops.authenticationapi.config;
 
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Configuration
+@EnableScheduling
 @ConfigurationPropertiesScan(basePackages = "unitbv.devops.authenticationapi")
 public class AppConfig {}
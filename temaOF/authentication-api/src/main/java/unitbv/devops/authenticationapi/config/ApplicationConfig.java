@@ -3,6 +3,7 @@ package unitbv.devops.authenticationapi.config;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -14,16 +15,19 @@ import unitbv.devops.authenticationapi.user.repository.UserRepository;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @Configuration
+@Profile("!reactive")
 @RequiredArgsConstructor
 @EnableConfigurationProperties(JwtProperties.class)
 public class ApplicationConfig {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ReadReplicaRouting readReplicaRouting;
 
     @Bean
     public UserDetailsService userDetailsService() { //UserDetails e o metoda din spring si doar incarca username ul
-        return username -> userRepository.findByUsername(username)
+        // A user registered moments ago may not be on the replica yet
+        return username -> readReplicaRouting.readYourWrites(() -> userRepository.findByUsername(username))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     }
 
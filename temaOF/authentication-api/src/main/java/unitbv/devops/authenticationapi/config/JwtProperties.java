@@ -2,12 +2,21 @@ package unitbv.devops.authenticationapi.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @ConfigurationProperties(prefix = "jwt")
 public class JwtProperties {
 
     private String secret;
     private long accessTokenExpirationMs;
     private long refreshTokenExpirationMs;
+    // Build the Authentication from the token claims instead of loading the user on every request
+    private boolean claimsOnlyAuth;
+    private long verifiedCacheSize = 10_000;
+    // Random refresh tokens instead of signed JWTs; only their digest is stored
+    private boolean opaqueRefreshTokens;
+    private Signing signing = new Signing();
 
     public String getSecret() {
         return secret;
@@ -34,4 +43,112 @@ public class JwtProperties {
     public void setRefreshTokenExpirationMs(long refreshTokenExpirationMs) {
         this.refreshTokenExpirationMs = refreshTokenExpirationMs;
     }
-}
\ No newline at end of file
+
+    public boolean isClaimsOnlyAuth() {
+        return claimsOnlyAuth;
+    }
+
+    public void setClaimsOnlyAuth(boolean claimsOnlyAuth) {
+        this.claimsOnlyAuth = claimsOnlyAuth;
+    }
+
+    public long getVerifiedCacheSize() {
+        return verifiedCacheSize;
+    }
+
+    public void setVerifiedCacheSize(long verifiedCacheSize) {
+        this.verifiedCacheSize = verifiedCacheSize;
+    }
+
+    public boolean isOpaqueRefreshTokens() {
+        return opaqueRefreshTokens;
+    }
+
+    public void setOpaqueRefreshTokens(boolean opaqueRefreshTokens) {
+        this.opaqueRefreshTokens = opaqueRefreshTokens;
+    }
+
+    public Signing getSigning() {
+        return signing;
+    }
+
+    public void setSigning(Signing signing) {
+        this.signing = signing;
+    }
+
+    // HS256 signs with the shared secret. RS256 / ES256 sign with the active key pair and publish
+    // the public keys at /.well-known/jwks.json so other services can verify tokens themselves.
+    public static class Signing {
+
+        private String algorithm = "HS256";
+        // kid of the key that signs new tokens; defaults to the first key with a private key
+        private String activeKid;
+        // Rotated-out keys stay here without a private key so their tokens verify until they expire
+        private List<Key> keys = new ArrayList<>();
+        private long jwksMaxAgeSeconds = 300;
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(String algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public String getActiveKid() {
+            return activeKid;
+        }
+
+        public void setActiveKid(String activeKid) {
+            this.activeKid = activeKid;
+        }
+
+        public List<Key> getKeys() {
+            return keys;
+        }
+
+        public void setKeys(List<Key> keys) {
+            this.keys = keys;
+        }
+
+        public long getJwksMaxAgeSeconds() {
+            return jwksMaxAgeSeconds;
+        }
+
+        public void setJwksMaxAgeSeconds(long jwksMaxAgeSeconds) {
+            this.jwksMaxAgeSeconds = jwksMaxAgeSeconds;
+        }
+    }
+
+    // PEM encoded: X.509 SubjectPublicKeyInfo public key, PKCS#8 private key
+    public static class Key {
+
+        private String kid;
+        private String publicKey;
+        private String privateKey;
+
+        public String getKid() {
+            return kid;
+        }
+
+        public void setKid(String kid) {
+            this.kid = kid;
+        }
+
+        public String getPublicKey() {
+            return publicKey;
+        }
+
+        public void setPublicKey(String publicKey) {
+            this.publicKey = publicKey;
+        }
+
+        public String getPrivateKey() {
+            return privateKey;
+        }
+
+        public void setPrivateKey(String privateKey) {
+            this.privateKey = privateKey;
+        }
+    }
+}
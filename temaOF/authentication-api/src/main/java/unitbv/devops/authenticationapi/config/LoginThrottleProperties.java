@@ -0,0 +1,65 @@
+package unitbv.devops.authenticationapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "login.throttle")
+public class LoginThrottleProperties {
+
+    private boolean enabled = true;
+    // Every login attempt from one client IP takes a token
+    private int ipCapacity = 20;
+    private long ipRefillMs = 1_000;
+    // Only failed attempts for one username/email take a token, so a user who logs in fine is never throttled
+    private int usernameCapacity = 5;
+    private long usernameRefillMs = 60_000;
+    // Upper bound on tracked IPs and on tracked usernames; idle entries are evicted once fully refilled
+    private long maxKeys = 100_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getIpCapacity() {
+        return ipCapacity;
+    }
+
+    public void setIpCapacity(int ipCapacity) {
+        this.ipCapacity = ipCapacity;
+    }
+
+    public long getIpRefillMs() {
+        return ipRefillMs;
+    }
+
+    public void setIpRefillMs(long ipRefillMs) {
+        this.ipRefillMs = ipRefillMs;
+    }
+
+    public int getUsernameCapacity() {
+        return usernameCapacity;
+    }
+
+    public void setUsernameCapacity(int usernameCapacity) {
+        this.usernameCapacity = usernameCapacity;
+    }
+
+    public long getUsernameRefillMs() {
+        return usernameRefillMs;
+    }
+
+    public void setUsernameRefillMs(long usernameRefillMs) {
+        this.usernameRefillMs = usernameRefillMs;
+    }
+
+    public long getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(long maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+}
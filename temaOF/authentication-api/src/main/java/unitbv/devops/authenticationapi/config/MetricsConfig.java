@@ -0,0 +1,94 @@
+package unitbv.devops.authenticationapi.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import unitbv.devops.authenticationapi.token.ReactiveTokenEpochCache;
+import unitbv.devops.authenticationapi.token.ReactiveTokenStateCache;
+import unitbv.devops.authenticationapi.token.TokenEpochCache;
+import unitbv.devops.authenticationapi.token.TokenRetentionJob;
+import unitbv.devops.authenticationapi.token.TokenStateCache;
+import unitbv.devops.authenticationapi.user.service.PasswordHashingService;
+
+@Configuration
+public class MetricsConfig {
+
+    // Enables @Timed on Spring beans
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    // Publishes the components' stats as meters, read at scrape time
+    @Bean
+    @Profile("!reactive")
+    public MeterBinder authComponentMetrics(TokenStateCache tokenStateCache,
+                                            TokenEpochCache tokenEpochCache,
+                                            PasswordHashingService passwordHashing,
+                                            TokenRetentionJob tokenRetention) {
+        return registry -> {
+            FunctionCounter.builder("token.cache.requests", tokenStateCache, cache -> cache.stats().hits())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("token.cache.requests", tokenStateCache, cache -> cache.stats().misses())
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("token.cache.size", tokenStateCache, cache -> cache.stats().size())
+                    .register(registry);
+            FunctionCounter.builder("token.epoch.cache.requests", tokenEpochCache, cache -> cache.stats().hits())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("token.epoch.cache.requests", tokenEpochCache, cache -> cache.stats().misses())
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("token.epoch.cache.size", tokenEpochCache, cache -> cache.stats().size())
+                    .register(registry);
+
+            Gauge.builder("password.hashing.queue.depth", passwordHashing, service -> service.stats().queueDepth())
+                    .register(registry);
+            Gauge.builder("password.hashing.active", passwordHashing, service -> service.stats().active())
+                    .register(registry);
+
+            FunctionCounter.builder("token.retention.deleted", tokenRetention, job -> job.stats().deletedTotal())
+                    .register(registry);
+            Gauge.builder("token.retention.last.run.millis", tokenRetention, job -> job.stats().lastRunMillis())
+                    .register(registry);
+        };
+    }
+
+    // Same meter names on the "reactive" profile, where only the token caches and the hashing pool exist
+    @Bean
+    @Profile("reactive")
+    public MeterBinder reactiveAuthComponentMetrics(ReactiveTokenStateCache tokenStateCache,
+                                                    ReactiveTokenEpochCache tokenEpochCache,
+                                                    PasswordHashingService passwordHashing) {
+        return registry -> {
+            FunctionCounter.builder("token.cache.requests", tokenStateCache, cache -> cache.stats().hits())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("token.cache.requests", tokenStateCache, cache -> cache.stats().misses())
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("token.cache.size", tokenStateCache, cache -> cache.stats().size())
+                    .register(registry);
+            FunctionCounter.builder("token.epoch.cache.requests", tokenEpochCache, cache -> cache.stats().hits())
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("token.epoch.cache.requests", tokenEpochCache, cache -> cache.stats().misses())
+                    .tag("result", "miss")
+                    .register(registry);
+            Gauge.builder("token.epoch.cache.size", tokenEpochCache, cache -> cache.stats().size())
+                    .register(registry);
+
+            Gauge.builder("password.hashing.queue.depth", passwordHashing, service -> service.stats().queueDepth())
+                    .register(registry);
+            Gauge.builder("password.hashing.active", passwordHashing, service -> service.stats().active())
+                    .register(registry);
+        };
+    }
+}
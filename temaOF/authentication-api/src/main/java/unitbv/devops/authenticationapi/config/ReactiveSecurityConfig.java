@@ -0,0 +1,60 @@
+package unitbv.devops.authenticationapi.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+import unitbv.devops.authenticationapi.user.entity.Role;
+import unitbv.devops.authenticationapi.user.repository.ReactiveUserRepository;
+import unitbv.devops.authenticationapi.user.service.ReactiveJwtAuthFilter;
+
+// SecurityConfig + ApplicationConfig for the "reactive" profile (WebFlux on Netty)
+@Configuration
+@Profile("reactive")
+@EnableWebFluxSecurity
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public ReactiveUserDetailsService reactiveUserDetailsService(ReactiveUserRepository userRepository) {
+        return username -> userRepository.findByUsername(username)
+                .<UserDetails>map(user -> user)
+                .switchIfEmpty(Mono.error(() -> new UsernameNotFoundException("User not found")));
+    }
+
+    @Bean
+    SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http, ReactiveJwtAuthFilter jwtAuthFilter) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                // Stateless: the authentication only lives in the request's reactor context
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchanges -> exchanges
+                        .pathMatchers(
+                                "/api/auth/register",
+                                "/api/auth/login",
+                                "/api/auth/token",
+                                "/.well-known/jwks.json",
+                                "/actuator/health/**"
+                        ).permitAll()
+                        .pathMatchers("/api/auth/introspect", "/api/auth/users/*/disable").hasAuthority(Role.ADMIN.name())
+                        // Metrics reveal traffic and user counts: scrape with an admin token
+                        .pathMatchers("/actuator/**").hasAuthority(Role.ADMIN.name())
+                        .anyExchange().authenticated()
+                )
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterAt(jwtAuthFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package unitbv.devops.authenticationapi.config;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Read-your-writes on top of ReadReplicaRoutingDataSource. Call these outside a transaction:
+// a transaction that already holds a connection keeps it.
+@Component
+@Profile("!reactive")
+public class ReadReplicaRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private final boolean enabled;
+
+    public ReadReplicaRouting(ReadReplicaProperties properties) {
+        this.enabled = properties.isEnabled();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // An empty result is asked again on the primary: the row may have been written there moments ago
+    // and not have reached the replica yet, e.g. the token a login just returned
+    public <T> Optional<T> readYourWrites(Supplier<Optional<T>> read) {
+        Optional<T> result = read.get();
+        if (result.isPresent() || !enabled) {
+            return result;
+        }
+        return onPrimary(read);
+    }
+
+    // Runs read-only repository calls against the primary, for reads that must not be stale
+    public <T> T onPrimary(Supplier<T> read) {
+        if (!enabled || isPrimaryForced()) {
+            return read.get();
+        }
+        PRIMARY_FORCED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_FORCED.remove();
+        }
+    }
+
+    static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get() != null;
+    }
+}
@@ -0,0 +1,34 @@
+package unitbv.devops.authenticationapi.config;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Read-only transactions go to the replica pool; read-write transactions, reads outside a transaction
+// and anything inside ReadReplicaRouting.onPrimary go to the primary.
+final class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private enum Target { PRIMARY, REPLICA }
+
+    private ReadReplicaRoutingDataSource() {}
+
+    // The lazy proxy defers the real getConnection to the first statement: by then the transaction
+    // manager has published the read-only flag, which is not the case yet when it begins the transaction
+    static DataSource create(DataSource primary, DataSource replica) {
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource();
+        routing.setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !ReadReplicaRouting.isPrimaryForced()
+                ? Target.REPLICA
+                : Target.PRIMARY;
+    }
+}
@@ -2,6 +2,7 @@ package unitbv.devops.authenticationapi.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -9,9 +10,11 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import unitbv.devops.authenticationapi.user.entity.Role;
 import unitbv.devops.authenticationapi.user.service.JwtAuthFilter;
 
 @Configuration
+@Profile("!reactive")
 @EnableWebSecurity
 public class SecurityConfig {
 
@@ -37,8 +40,13 @@ public class SecurityConfig {
                                 "/configuration/**",
                                 "/api/auth/register",
                                 "/api/auth/login",
-                                "/api/auth/token"
+                                "/api/auth/token",
+                                "/.well-known/jwks.json",
+                                "/actuator/health/**"
                         ).permitAll()
+                        .requestMatchers("/api/auth/introspect", "/api/auth/users/*/disable").hasAuthority(Role.ADMIN.name())
+                        // Metrics reveal traffic and user counts: scrape with an admin token
+                        .requestMatchers("/actuator/**").hasAuthority(Role.ADMIN.name())
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session ->
@@ -0,0 +1,27 @@
+package unitbv.devops.authenticationapi.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "token.cache")
+public class TokenCacheProperties {
+
+    private long maxSize = 100_000;
+    // Upper bound for how long a cached token state may be stale (e.g. blacklisted on another instance)
+    private long ttlMs = 30_000;
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    public void setTtlMs(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+}
@@ -1,21 +1,40 @@
 package unitbv.devops.authenticationapi.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import unitbv.devops.authenticationapi.dto.auth.*;
+import unitbv.devops.authenticationapi.user.entity.User;
+import unitbv.devops.authenticationapi.user.service.JwtPrincipal;
+import unitbv.devops.authenticationapi.user.service.LoginRateLimiter;
+import unitbv.devops.authenticationapi.user.service.LoginThrottledException;
+import unitbv.devops.authenticationapi.user.service.PasswordHashingBusyException;
 import unitbv.devops.authenticationapi.user.service.UserService;
-import java.util.List;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/auth")
 public class AuthController {
 
     private final UserService service;
+    private final ObjectMapper objectMapper;
+    private final LoginRateLimiter loginRateLimiter;
 
-    public AuthController(UserService service) {
+    public AuthController(UserService service, ObjectMapper objectMapper, LoginRateLimiter loginRateLimiter) {
         this.service = service;
+        this.objectMapper = objectMapper;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
     @PostMapping("/register")
@@ -27,10 +46,16 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthenticationResponse> login(@RequestBody @Valid LoginRequest request) {
+    public ResponseEntity<AuthenticationResponse> login(@RequestBody @Valid LoginRequest request,
+                                                        HttpServletRequest httpRequest) {
+        // Refused here, before the user lookup and BCrypt
+        loginRateLimiter.checkLogin(httpRequest.getRemoteAddr(), request.usernameOrEmail());
         return service.login(request)
                 // Pur și simplu returnăm răspunsul (care e deja AuthenticationResponse)
-                .map(response -> ResponseEntity.ok(response))
+                .map(response -> {
+                    loginRateLimiter.recordSuccess(request.usernameOrEmail());
+                    return ResponseEntity.ok(response);
+                })
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
     }
 
@@ -47,12 +72,82 @@ public class AuthController {
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
     }
 
+    // For gateways: validate up to 500 bearer tokens per call instead of one request each
+    @PostMapping("/introspect")
+    public ResponseEntity<IntrospectionResponse> introspect(@RequestBody @Valid IntrospectionRequest request) {
+        return ResponseEntity.ok(new IntrospectionResponse(service.introspect(request.tokens())));
+    }
+
+    // Logs the caller out everywhere: every token issued to them so far stops working
+    @PostMapping("/logout-all")
+    public ResponseEntity<Void> logoutAll(Authentication authentication) {
+        String userId = userIdOf(authentication);
+        if (userId == null || !service.revokeAllTokens(userId)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/users/{id}/disable")
+    public ResponseEntity<?> disableUser(@PathVariable String id) {
+        if (!service.disableUser(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new SimpleError("User not found"));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/users")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        System.out.println("=== CONTROLLER: GET /api/auth/users called ===");
-        List<UserResponse> users = service.getAllUsers();
-        System.out.println("=== CONTROLLER: Returning " + users.size() + " users ===");
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(service.getUsers(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new SimpleError("Invalid cursor"));
+        }
+    }
+
+    // One UserResponse per line, written straight to the response as users are read
+    @GetMapping(value = "/users/export", produces = "application/x-ndjson")
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        OutputStream out = response.getOutputStream();
+        service.exportUsers(user -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(user));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        out.flush();
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<SimpleError> passwordHashingBusy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new SimpleError("Too many login attempts in progress, retry later"));
+    }
+
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<SimpleError> loginThrottled(LoginThrottledException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new SimpleError("Too many login attempts, retry later"));
+    }
+
+    // The principal is a JwtPrincipal in claims-only mode and the loaded User otherwise
+    static String userIdOf(Authentication authentication) {
+        if (authentication == null) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            return principal.userId();
+        }
+        if (authentication.getPrincipal() instanceof User user) {
+            return user.getId();
+        }
+        return null;
     }
 
     public record SimpleError(String error) {}
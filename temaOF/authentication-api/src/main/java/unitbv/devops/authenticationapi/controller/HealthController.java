@@ -1,9 +1,13 @@
 package unitbv.devops.authenticationapi.controller;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+// Component stats (token caches, hashing pool, retention, login throttle) are Micrometer meters
+// on /actuator/prometheus
 @RestController
+@Profile("!reactive")
 public class HealthController {
 
     @GetMapping("/api/health")
@@ -11,4 +15,3 @@ public class HealthController {
         return "OK";
     }
 }
-
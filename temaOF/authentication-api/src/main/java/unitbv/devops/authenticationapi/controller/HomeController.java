@@ -1,9 +1,11 @@
 package unitbv.devops.authenticationapi.controller;
 
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 
 @Controller
+@Profile("!reactive")
 public class HomeController {
 
     @GetMapping("/")
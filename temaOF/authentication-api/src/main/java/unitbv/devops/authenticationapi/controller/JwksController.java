@@ -0,0 +1,34 @@
+package unitbv.devops.authenticationapi.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import unitbv.devops.authenticationapi.config.JwtProperties;
+import unitbv.devops.authenticationapi.user.service.JwtService;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+// Public keys for validating our tokens offline; served by both the servlet and the reactive stack.
+// Resource servers cache it and only refetch on an unknown kid, so it must outlive a key rotation overlap.
+@RestController
+public class JwksController {
+
+    private final JwtService jwtService;
+    private final CacheControl cacheControl;
+
+    public JwksController(JwtService jwtService, JwtProperties jwtProperties) {
+        this.jwtService = jwtService;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(jwtProperties.getSigning().getJwksMaxAgeSeconds()))
+                .cachePublic();
+    }
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = "application/jwk-set+json")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .body(Map.of("keys", jwtService.jwks()));
+    }
+}
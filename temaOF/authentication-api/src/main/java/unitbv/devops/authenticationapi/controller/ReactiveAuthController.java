@@ -0,0 +1,118 @@
+package unitbv.devops.authenticationapi.controller;
+
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import unitbv.devops.authenticationapi.controller.AuthController.SimpleError;
+import unitbv.devops.authenticationapi.dto.auth.*;
+import unitbv.devops.authenticationapi.user.service.LoginRateLimiter;
+import unitbv.devops.authenticationapi.user.service.LoginThrottledException;
+import unitbv.devops.authenticationapi.user.service.PasswordHashingBusyException;
+import unitbv.devops.authenticationapi.user.service.ReactiveUserService;
+
+import java.net.InetSocketAddress;
+
+// The /api/auth endpoints of AuthController on WebFlux, active with the "reactive" profile
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/auth")
+public class ReactiveAuthController {
+
+    private final ReactiveUserService service;
+    private final LoginRateLimiter loginRateLimiter;
+
+    public ReactiveAuthController(ReactiveUserService service, LoginRateLimiter loginRateLimiter) {
+        this.service = service;
+        this.loginRateLimiter = loginRateLimiter;
+    }
+
+    @PostMapping("/register")
+    public Mono<ResponseEntity<?>> register(@RequestBody @Valid RegisterRequest request) {
+        return service.register(request)
+                .<ResponseEntity<?>>map(tokens -> ResponseEntity.status(HttpStatus.CREATED).body(tokens))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(new SimpleError("Username or email already in use")));
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<AuthenticationResponse>> login(@RequestBody @Valid LoginRequest request,
+                                                              ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        loginRateLimiter.checkLogin(remoteAddress == null ? null : remoteAddress.getHostString(),
+                request.usernameOrEmail());
+        return service.login(request)
+                .doOnNext(tokens -> loginRateLimiter.recordSuccess(request.usernameOrEmail()))
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    @PostMapping("/token")
+    public Mono<ResponseEntity<AuthenticationResponse>> refresh(@RequestBody @Valid TokenRefreshRequest request) {
+        return service.refresh(request)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    @PostMapping("/introspect")
+    public Mono<ResponseEntity<IntrospectionResponse>> introspect(@RequestBody @Valid IntrospectionRequest request) {
+        return service.introspect(request.tokens())
+                .map(results -> ResponseEntity.ok(new IntrospectionResponse(results)));
+    }
+
+    @PostMapping("/logout-all")
+    public Mono<ResponseEntity<Void>> logoutAll() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .flatMap(authentication -> Mono.justOrEmpty(AuthController.userIdOf(authentication)))
+                .flatMap(service::revokeAllTokens)
+                .filter(found -> found)
+                .map(found -> ResponseEntity.noContent().<Void>build())
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    @PostMapping("/users/{id}/disable")
+    public Mono<ResponseEntity<?>> disableUser(@PathVariable String id) {
+        return service.disableUser(id)
+                .<ResponseEntity<?>>map(found -> found
+                        ? ResponseEntity.noContent().build()
+                        : ResponseEntity.status(HttpStatus.NOT_FOUND).body(new SimpleError("User not found")));
+    }
+
+    @GetMapping("/users")
+    public Mono<ResponseEntity<?>> getAllUsers(@RequestParam(required = false) String cursor,
+                                               @RequestParam(defaultValue = "50") int limit) {
+        return service.getUsers(cursor, limit)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class,
+                        e -> Mono.just(ResponseEntity.badRequest().body(new SimpleError("Invalid cursor"))));
+    }
+
+    // WebFlux writes a Flux as one JSON document per line and flushes as elements arrive
+    @GetMapping(value = "/users/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserResponse> exportUsers() {
+        return service.exportUsers();
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<SimpleError> passwordHashingBusy(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new SimpleError("Too many login attempts in progress, retry later"));
+    }
+
+    @ExceptionHandler(LoginThrottledException.class)
+    public ResponseEntity<SimpleError> loginThrottled(LoginThrottledException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(new SimpleError("Too many login attempts, retry later"));
+    }
+}
@@ -0,0 +1,10 @@
+package unitbv.devops.authenticationapi.dto.auth;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record IntrospectionRequest(
+        @NotEmpty @Size(max = 500) List<String> tokens
+) {}
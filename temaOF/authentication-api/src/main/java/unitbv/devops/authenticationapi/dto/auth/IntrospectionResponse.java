@@ -0,0 +1,8 @@
+package unitbv.devops.authenticationapi.dto.auth;
+
+import java.util.List;
+
+// One result per requested token, in request order
+public record IntrospectionResponse(
+        List<TokenIntrospection> results
+) {}
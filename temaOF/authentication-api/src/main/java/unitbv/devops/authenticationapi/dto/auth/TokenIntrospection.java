@@ -0,0 +1,19 @@
+package unitbv.devops.authenticationapi.dto.auth;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// RFC 7662 style: an inactive token only reports active=false
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenIntrospection(
+        boolean active,
+        String sub,
+        String uid,
+        List<String> roles,
+        Long exp
+) {
+    public static TokenIntrospection inactive() {
+        return new TokenIntrospection(false, null, null, null, null);
+    }
+}
@@ -0,0 +1,9 @@
+package unitbv.devops.authenticationapi.dto.auth;
+
+import java.util.List;
+
+// nextCursor is null on the last page
+public record UserPageResponse(
+        List<UserResponse> users,
+        String nextCursor
+) {}
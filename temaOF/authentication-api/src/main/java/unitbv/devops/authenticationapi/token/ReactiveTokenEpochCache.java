@@ -0,0 +1,60 @@
+package unitbv.devops.authenticationapi.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import unitbv.devops.authenticationapi.config.TokenCacheProperties;
+import unitbv.devops.authenticationapi.user.repository.ReactiveUserRepository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+// TokenEpochCache for the "reactive" profile: same size/ttl rules, misses go to ReactiveUserRepository
+@Component
+@Profile("reactive")
+public class ReactiveTokenEpochCache {
+
+    private final ReactiveUserRepository users;
+    private final Cache<String, Long> cache;
+
+    public ReactiveTokenEpochCache(ReactiveUserRepository users, TokenCacheProperties properties) {
+        this.users = users;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(Duration.ofMillis(properties.getTtlMs()))
+                .recordStats()
+                .build();
+    }
+
+    // Empty for an unknown or disabled user, which is never cached
+    public Mono<Long> currentEpoch(String userId) {
+        Long cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return users.findEnabledTokenEpochById(userId)
+                .doOnNext(epoch -> cache.put(userId, epoch));
+    }
+
+    public Mono<Map<String, Long>> currentEpochs(Collection<String> userIds) {
+        Map<String, Long> found = new HashMap<>(cache.getAllPresent(userIds));
+        return Flux.fromIterable(userIds)
+                .filter(userId -> !found.containsKey(userId))
+                .flatMap(userId -> currentEpoch(userId).map(epoch -> Map.entry(userId, epoch)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue, () -> found);
+    }
+
+    public void invalidate(String userId) {
+        cache.invalidate(userId);
+    }
+
+    public TokenStateCache.Stats stats() {
+        var stats = cache.stats();
+        return new TokenStateCache.Stats(stats.hitCount(), stats.missCount(), cache.estimatedSize());
+    }
+}
@@ -0,0 +1,84 @@
+package unitbv.devops.authenticationapi.token;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+// R2DBC counterpart of TokenRepository for the "reactive" profile, over the same tokens table.
+// Plain SQL through DatabaseClient: Token is a JPA entity (@ManyToOne user) that Spring Data R2DBC cannot map.
+@Repository
+@Profile("reactive")
+public class ReactiveTokenRepository {
+
+    private final DatabaseClient db;
+
+    public ReactiveTokenRepository(DatabaseClient db) {
+        this.db = db;
+    }
+
+    // The id comes from the same tokens_seq as the JPA side; a single nextval is always outside
+    // the blocks Hibernate's pooled optimizer hands out, so both stacks can share the table
+    public Mono<Void> insert(String userId, String accessToken, String refreshToken, boolean storeRefreshToken,
+                             Instant createdAt) {
+        DatabaseClient.GenericExecuteSpec spec = db.sql("insert into tokens (id, access_token, refresh_token, " +
+                        "access_token_hash, refresh_token_hash, blacklisted, created_at, user_id) " +
+                        "values (nextval('tokens_seq'), :accessToken, :refreshToken, :accessTokenHash, :refreshTokenHash, " +
+                        "false, :createdAt, :userId)")
+                .bind("accessToken", accessToken);
+        spec = storeRefreshToken
+                ? spec.bind("refreshToken", refreshToken)
+                : spec.bindNull("refreshToken", String.class);
+        return spec
+                .bind("accessTokenHash", TokenDigest.sha256Hex(accessToken))
+                .bind("refreshTokenHash", TokenDigest.sha256Hex(refreshToken))
+                .bind("createdAt", createdAt)
+                .bind("userId", userId)
+                .then();
+    }
+
+    public Mono<TokenState> findStateByAccessTokenHash(String accessTokenHash) {
+        return db.sql("select id, blacklisted, user_id from tokens where access_token_hash = :accessTokenHash")
+                .bind("accessTokenHash", accessTokenHash)
+                .map((row, metadata) -> new TokenState(
+                        row.get("id", Long.class),
+                        Boolean.TRUE.equals(row.get("blacklisted", Boolean.class)),
+                        row.get("user_id", String.class)))
+                .one();
+    }
+
+    // One round-trip for a whole batch; the digests go in as a single array parameter
+    public Flux<TokenHashState> findStatesByAccessTokenHashIn(Collection<String> accessTokenHashes) {
+        return db.sql("select access_token_hash, id, blacklisted, user_id from tokens " +
+                        "where access_token_hash = any(:accessTokenHashes)")
+                .bind("accessTokenHashes", accessTokenHashes.toArray(String[]::new))
+                .map((row, metadata) -> new TokenHashState(
+                        row.get("access_token_hash", String.class),
+                        row.get("id", Long.class),
+                        Boolean.TRUE.equals(row.get("blacklisted", Boolean.class)),
+                        row.get("user_id", String.class)))
+                .all();
+    }
+
+    // Refresh-token rotation: a single statement both checks and consumes the pair
+    public Mono<Long> blacklistPairIfActive(String refreshTokenHash, String accessTokenHash, Instant issuedAfter) {
+        return db.sql("update tokens set blacklisted = true where refresh_token_hash = :refreshTokenHash " +
+                        "and access_token_hash = :accessTokenHash and blacklisted = false and created_at > :issuedAfter")
+                .bind("refreshTokenHash", refreshTokenHash)
+                .bind("accessTokenHash", accessTokenHash)
+                .bind("issuedAfter", issuedAfter)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<String> findUserIdByRefreshTokenHash(String refreshTokenHash) {
+        return db.sql("select user_id from tokens where refresh_token_hash = :refreshTokenHash")
+                .bind("refreshTokenHash", refreshTokenHash)
+                .map((row, metadata) -> row.get("user_id", String.class))
+                .one();
+    }
+}
@@ -0,0 +1,88 @@
+package unitbv.devops.authenticationapi.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import unitbv.devops.authenticationapi.config.TokenCacheProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// TokenStateCache for the "reactive" profile: same size/ttl rules, misses go to ReactiveTokenRepository
+@Component
+@Profile("reactive")
+public class ReactiveTokenStateCache {
+
+    private final ReactiveTokenRepository tokenRepository;
+    private final Duration ttl;
+    private final Cache<String, Entry> cache;
+
+    public ReactiveTokenStateCache(ReactiveTokenRepository tokenRepository, TokenCacheProperties properties) {
+        this.tokenRepository = tokenRepository;
+        this.ttl = Duration.ofMillis(properties.getTtlMs());
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfter(Expiry.creating((String key, Entry entry) -> timeToLive(entry)))
+                .recordStats()
+                .build();
+    }
+
+    // Empty for unknown tokens, which are never cached
+    public Mono<TokenState> lookup(String accessToken, Instant expiresAt) {
+        String hash = TokenDigest.sha256Hex(accessToken);
+        Entry entry = cache.getIfPresent(hash);
+        if (entry != null) {
+            return Mono.just(entry.state());
+        }
+        return tokenRepository.findStateByAccessTokenHash(hash)
+                .doOnNext(state -> cache.put(hash, new Entry(state, expiresAt)));
+    }
+
+    // Batch lookup keyed by digest (-> the token's exp): cache hits, then one query for the rest
+    public Mono<Map<String, TokenState>> lookupAll(Map<String, Instant> expiresAtByHash) {
+        Map<String, TokenState> found = new HashMap<>();
+        cache.getAllPresent(expiresAtByHash.keySet()).forEach((hash, entry) -> found.put(hash, entry.state()));
+        List<String> missing = new ArrayList<>();
+        for (String hash : expiresAtByHash.keySet()) {
+            if (!found.containsKey(hash)) {
+                missing.add(hash);
+            }
+        }
+        if (missing.isEmpty()) {
+            return Mono.just(found);
+        }
+        return tokenRepository.findStatesByAccessTokenHashIn(missing)
+                .doOnNext(row -> cache.put(row.accessTokenHash(),
+                        new Entry(row.state(), expiresAtByHash.get(row.accessTokenHash()))))
+                .collectMap(TokenHashState::accessTokenHash, TokenHashState::state, () -> found);
+    }
+
+    public void invalidateHash(String accessTokenHash) {
+        cache.invalidate(accessTokenHash);
+    }
+
+    public TokenStateCache.Stats stats() {
+        var stats = cache.stats();
+        return new TokenStateCache.Stats(stats.hitCount(), stats.missCount(), cache.estimatedSize());
+    }
+
+    private Duration timeToLive(Entry entry) {
+        if (entry.expiresAt() == null) {
+            return ttl;
+        }
+        Duration untilExpiry = Duration.between(Instant.now(), entry.expiresAt());
+        if (untilExpiry.isNegative()) {
+            return Duration.ZERO;
+        }
+        return untilExpiry.compareTo(ttl) < 0 ? untilExpiry : ttl;
+    }
+
+    private record Entry(TokenState state, Instant expiresAt) {}
+}
@@ -14,20 +14,33 @@ import java.time.Instant;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "tokens")
+@Table(name = "tokens", indexes = {
+        @Index(name = "ux_tokens_access_token_hash", columnList = "access_token_hash", unique = true),
+        @Index(name = "ux_tokens_refresh_token_hash", columnList = "refresh_token_hash", unique = true),
+        @Index(name = "ix_tokens_created_at", columnList = "created_at")
+})
 public class Token {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "token_seq")
-    @SequenceGenerator(name = "token_seq", sequenceName = "tokens_seq", allocationSize = 1)
+    // Pooled: one nextval per 50 inserts (the DB sequence must use INCREMENT BY 50)
+    @SequenceGenerator(name = "token_seq", sequenceName = "tokens_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "access_token", length = 1024, nullable = false)
     private String accessToken;
 
-    @Column(name = "refresh_token", length = 1024, nullable = false)
+    // Null for opaque refresh tokens (jwt.opaque-refresh-tokens), which are kept as refreshTokenHash only
+    @Column(name = "refresh_token", length = 1024)
     private String refreshToken;
 
+    // SHA-256 hex digests of the tokens above, used for all lookups
+    @Column(name = "access_token_hash", length = 64)
+    private String accessTokenHash;
+
+    @Column(name = "refresh_token_hash", length = 64)
+    private String refreshTokenHash;
+
     @Builder.Default
     @Column(nullable = false)
     private boolean blacklisted = false;
@@ -0,0 +1,71 @@
+package unitbv.devops.authenticationapi.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import unitbv.devops.authenticationapi.config.ReadReplicaRouting;
+import unitbv.devops.authenticationapi.config.TokenCacheProperties;
+import unitbv.devops.authenticationapi.user.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// user id -> current token epoch, in front of UserRepository. One entry covers every token of a user,
+// so the per-request epoch check is a memory lookup. Only enabled users have an epoch, so the same check
+// rejects every token of a disabled user. The local entry is dropped when the epoch is bumped here;
+// other instances see the bump after token.cache.ttl-ms at the latest.
+@Component
+@Profile("!reactive")
+public class TokenEpochCache {
+
+    private final UserRepository users;
+    private final ReadReplicaRouting readReplicaRouting;
+    private final Cache<String, Long> cache;
+
+    public TokenEpochCache(UserRepository users, ReadReplicaRouting readReplicaRouting, TokenCacheProperties properties) {
+        this.users = users;
+        this.readReplicaRouting = readReplicaRouting;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(Duration.ofMillis(properties.getTtlMs()))
+                .recordStats()
+                .build();
+    }
+
+    // Empty for an unknown (deleted) or disabled user, which is never cached.
+    // The query runs outside the cache for the same reason as in TokenStateCache.lookup, and always on the
+    // primary: a lagging replica would hand back the epoch from before a revocation and it would be cached.
+    public Optional<Long> currentEpoch(String userId) {
+        Long cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Long> epoch = readReplicaRouting.onPrimary(() -> users.findEnabledTokenEpochById(userId));
+        epoch.ifPresent(found -> cache.put(userId, found));
+        return epoch;
+    }
+
+    // Users that do not exist or are disabled are absent from the result
+    public Map<String, Long> currentEpochs(Collection<String> userIds) {
+        Map<String, Long> epochs = new HashMap<>(cache.getAllPresent(userIds));
+        for (String userId : userIds) {
+            if (!epochs.containsKey(userId)) {
+                currentEpoch(userId).ifPresent(epoch -> epochs.put(userId, epoch));
+            }
+        }
+        return epochs;
+    }
+
+    public void invalidate(String userId) {
+        cache.invalidate(userId);
+    }
+
+    public TokenStateCache.Stats stats() {
+        var stats = cache.stats();
+        return new TokenStateCache.Stats(stats.hitCount(), stats.missCount(), cache.estimatedSize());
+    }
+}
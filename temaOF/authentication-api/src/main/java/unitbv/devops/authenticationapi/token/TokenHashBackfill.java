@@ -0,0 +1,55 @@
+package unitbv.devops.authenticationapi.token;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// One-off migration for token rows written before access_token_hash / refresh_token_hash existed.
+// Their digests are computed from the stored tokens, so those sessions keep working instead of
+// being forced to log in again. Once every row is filled this is a single empty indexed query.
+@Component
+@Profile("!reactive")
+public class TokenHashBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenHashBackfill.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final TokenRepository tokenRepository;
+
+    public TokenHashBackfill(TokenRepository tokenRepository) {
+        this.tokenRepository = tokenRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long filled = 0;
+        long skipped = 0;
+        long afterId = 0;
+        List<Token> batch;
+        do {
+            batch = tokenRepository.findUnhashedAfter(afterId, Limit.of(BATCH_SIZE));
+            for (Token token : batch) {
+                afterId = token.getId();
+                try {
+                    filled += tokenRepository.fillTokenHashes(token.getId(),
+                            TokenDigest.sha256Hex(token.getAccessToken()),
+                            token.getRefreshToken() == null ? null : TokenDigest.sha256Hex(token.getRefreshToken()));
+                } catch (DataIntegrityViolationException e) {
+                    // Old rows could hold byte-identical tokens (no jti); only the first one keeps its digest
+                    skipped++;
+                }
+            }
+        } while (batch.size() == BATCH_SIZE);
+
+        if (filled > 0 || skipped > 0) {
+            log.info("Backfilled token digests for {} rows ({} duplicates left unhashed)", filled, skipped);
+        }
+    }
+}
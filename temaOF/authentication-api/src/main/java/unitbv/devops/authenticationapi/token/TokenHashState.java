@@ -0,0 +1,13 @@
+package unitbv.devops.authenticationapi.token;
+
+// TokenState plus the digest it was looked up by, for batch lookups
+public record TokenHashState(
+        String accessTokenHash,
+        Long id,
+        boolean blacklisted,
+        String userId
+) {
+    public TokenState state() {
+        return new TokenState(id, blacklisted, userId);
+    }
+}
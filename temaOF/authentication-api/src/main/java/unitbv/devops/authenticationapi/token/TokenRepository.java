@@ -1,19 +1,60 @@
 package unitbv.devops.authenticationapi.token;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface TokenRepository extends JpaRepository<Token, Long> {
 
-    // Spring Data JPA will automatically generate these queries
-    Optional<Token> findByAccessToken(String accessToken);
+    // Lookups go through the indexed SHA-256 digests (see TokenDigest) and only read a projection.
+    // readOnly: served by the replica pool when db.replica.enabled is set.
+    @Transactional(readOnly = true)
+    @Query("select new unitbv.devops.authenticationapi.token.TokenState(t.id, t.blacklisted, t.user.id) " +
+            "from Token t where t.accessTokenHash = :accessTokenHash")
+    Optional<TokenState> findStateByAccessTokenHash(String accessTokenHash);
+
+    // Batch introspection: the revocation state of many tokens in one IN query
+    @Transactional(readOnly = true)
+    @Query("select new unitbv.devops.authenticationapi.token.TokenHashState(t.accessTokenHash, t.id, t.blacklisted, t.user.id) " +
+            "from Token t where t.accessTokenHash in :accessTokenHashes")
+    List<TokenHashState> findStatesByAccessTokenHashIn(Collection<String> accessTokenHashes);
+
+    // Refresh-token rotation: a single statement both checks and consumes the pair.
+    // issuedAfter is the refresh token lifetime, which opaque tokens do not carry themselves.
+    @Transactional
+    @Modifying
+    @Query("update Token t set t.blacklisted = true where t.refreshTokenHash = :refreshTokenHash " +
+            "and t.accessTokenHash = :accessTokenHash and t.blacklisted = false and t.createdAt > :issuedAfter")
+    int blacklistPairIfActive(String refreshTokenHash, String accessTokenHash, Instant issuedAfter);
+
+    @Transactional(readOnly = true)
+    @Query("select t.user.id from Token t where t.refreshTokenHash = :refreshTokenHash")
+    Optional<String> findUserIdByRefreshTokenHash(String refreshTokenHash);
+
+    // Used by TokenHashBackfill: rows written before the digest columns existed, in id order
+    @Query("select t from Token t where t.accessTokenHash is null and t.id > :afterId order by t.id")
+    List<Token> findUnhashedAfter(long afterId, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("update Token t set t.accessTokenHash = :accessTokenHash, t.refreshTokenHash = :refreshTokenHash " +
+            "where t.id = :id and t.accessTokenHash is null")
+    int fillTokenHashes(Long id, String accessTokenHash, String refreshTokenHash);
 
-    Optional<Token> findByRefreshToken(String refreshToken);
+    // Used by TokenRetentionJob. Two queries rather than one OR, so each is a single created_at index range
+    // read in index order and stops after the batch size.
+    @Query("select t.id from Token t where t.createdAt < :expiredBefore order by t.createdAt")
+    List<Long> findExpiredIds(Instant expiredBefore, Limit limit);
 
-    // Check if a token exists and is blacklisted
-    default boolean isAccessTokenBlacklisted(String accessToken) {
-        return findByAccessToken(accessToken)
-                .map(Token::isBlacklisted)
-                .orElse(false);
-    }
-}
\ No newline at end of file
+    // Starts where findExpiredIds ends, so the two never return the same row
+    @Query("select t.id from Token t where t.createdAt >= :expiredBefore and t.createdAt < :blacklistedBefore " +
+            "and t.blacklisted = true order by t.createdAt")
+    List<Long> findRotatedIds(Instant expiredBefore, Instant blacklistedBefore, Limit limit);
+}
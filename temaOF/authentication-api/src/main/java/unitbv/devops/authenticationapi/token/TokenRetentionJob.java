@@ -0,0 +1,99 @@
+package unitbv.devops.authenticationapi.token;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import unitbv.devops.authenticationapi.config.JwtProperties;
+import unitbv.devops.authenticationapi.config.TokenRetentionProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Deletes token rows nobody can use anymore, in small batches:
+//  - rows older than both expirations (access and refresh JWT are expired)
+//  - blacklisted rows whose access token has expired (the refresh token was already rotated)
+@Component
+@Profile("!reactive")
+public class TokenRetentionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRetentionJob.class);
+
+    private final TokenRepository tokenRepository;
+    private final TokenRetentionProperties properties;
+    private final Duration accessTokenLifetime;
+    private final Duration tokenPairLifetime;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong deletedTotal = new AtomicLong();
+    private final AtomicLong lastRunDeleted = new AtomicLong();
+    private final AtomicLong lastRunMillis = new AtomicLong();
+
+    public TokenRetentionJob(TokenRepository tokenRepository,
+                             TokenRetentionProperties properties,
+                             JwtProperties jwtProperties) {
+        this.tokenRepository = tokenRepository;
+        this.properties = properties;
+        this.accessTokenLifetime = Duration.ofMillis(jwtProperties.getAccessTokenExpirationMs());
+        this.tokenPairLifetime = Duration.ofMillis(Math.max(
+                jwtProperties.getAccessTokenExpirationMs(), jwtProperties.getRefreshTokenExpirationMs()));
+    }
+
+    @Scheduled(fixedDelayString = "${token.retention.interval-ms:300000}",
+            initialDelayString = "${token.retention.interval-ms:300000}")
+    public void purge() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Instant now = Instant.now();
+        Instant expiredBefore = now.minus(tokenPairLifetime);
+        Instant blacklistedBefore = now.minus(accessTokenLifetime);
+
+        long deleted = 0;
+        try {
+            // Each query gets its own batch budget, so an expired backlog cannot starve the rotated rows
+            for (Function<Limit, List<Long>> query : List.<Function<Limit, List<Long>>>of(
+                    limit -> tokenRepository.findExpiredIds(expiredBefore, limit),
+                    limit -> tokenRepository.findRotatedIds(expiredBefore, blacklistedBefore, limit))) {
+                int batches = 0;
+                while (batches < properties.getMaxBatchesPerRun()) {
+                    List<Long> ids = query.apply(Limit.of(properties.getBatchSize()));
+                    if (ids.isEmpty()) {
+                        break;
+                    }
+                    tokenRepository.deleteAllByIdInBatch(ids);
+                    deleted += ids.size();
+                    batches++;
+                    if (ids.size() < properties.getBatchSize()) {
+                        break;
+                    }
+                    Thread.sleep(properties.getPauseMs());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Token retention run failed", e);
+        } finally {
+            runs.incrementAndGet();
+            deletedTotal.addAndGet(deleted);
+            lastRunDeleted.set(deleted);
+            lastRunMillis.set(System.currentTimeMillis() - start);
+        }
+        if (deleted > 0) {
+            log.debug("Token retention purged {} rows in {} ms", deleted, lastRunMillis.get());
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(runs.get(), deletedTotal.get(), lastRunDeleted.get(), lastRunMillis.get());
+    }
+
+    public record Stats(long runs, long deletedTotal, long lastRunDeleted, long lastRunMillis) {}
+}
@@ -0,0 +1,8 @@
+package unitbv.devops.authenticationapi.token;
+
+// Minimal token state needed by the JWT filter and the refresh flow
+public record TokenState(
+        Long id,
+        boolean blacklisted,
+        String userId
+) {}
@@ -0,0 +1,124 @@
+package unitbv.devops.authenticationapi.token;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import unitbv.devops.authenticationapi.config.ReadReplicaRouting;
+import unitbv.devops.authenticationapi.config.TokenCacheProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+@Profile("!reactive")
+public class TokenStateCache {
+
+    private final TokenRepository tokenRepository;
+    private final TokenWriteBehind writeBehind;
+    private final ReadReplicaRouting readReplicaRouting;
+    private final Duration ttl;
+    private final Cache<String, Entry> cache;
+
+    public TokenStateCache(TokenRepository tokenRepository,
+                           TokenWriteBehind writeBehind,
+                           ReadReplicaRouting readReplicaRouting,
+                           TokenCacheProperties properties) {
+        this.tokenRepository = tokenRepository;
+        this.writeBehind = writeBehind;
+        this.readReplicaRouting = readReplicaRouting;
+        this.ttl = Duration.ofMillis(properties.getTtlMs());
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfter(Expiry.creating((String key, Entry entry) -> timeToLive(entry)))
+                .recordStats()
+                .build();
+    }
+
+    // Goes to the database only on a miss; unknown tokens are never cached.
+    // Tokens still waiting in the write-behind queue are found there, and a token the replica does not
+    // have yet (issued moments ago) is looked up again on the primary.
+    // The query runs outside the cache: cache.get(key, loader) would run it inside a
+    // ConcurrentHashMap bin lock, pinning a virtual thread's carrier for the whole round-trip.
+    public Optional<TokenState> lookup(String accessToken, Instant expiresAt) {
+        String hash = TokenDigest.sha256Hex(accessToken);
+        Entry entry = cache.getIfPresent(hash);
+        if (entry != null) {
+            return Optional.of(entry.state());
+        }
+        Optional<TokenState> state = writeBehind.findPendingByAccessHash(hash)
+                .or(() -> readReplicaRouting.readYourWrites(
+                        () -> tokenRepository.findStateByAccessTokenHash(hash)));
+        state.ifPresent(found -> cache.put(hash, new Entry(found, expiresAt)));
+        return state;
+    }
+
+    // Batch form of lookup keyed by digest (-> the token's exp): cache hits and pending write-behind tokens
+    // first, then a single IN query for the rest. Unknown tokens are simply absent from the result.
+    public Map<String, TokenState> lookupAll(Map<String, Instant> expiresAtByHash) {
+        Map<String, TokenState> found = new HashMap<>();
+        cache.getAllPresent(expiresAtByHash.keySet()).forEach((hash, entry) -> found.put(hash, entry.state()));
+
+        List<String> missing = new ArrayList<>();
+        for (String hash : expiresAtByHash.keySet()) {
+            if (!found.containsKey(hash)) {
+                writeBehind.findPendingByAccessHash(hash).ifPresentOrElse(state -> found.put(hash, state), () -> missing.add(hash));
+            }
+        }
+        if (!missing.isEmpty()) {
+            addRows(found, tokenRepository.findStatesByAccessTokenHashIn(missing), expiresAtByHash);
+        }
+        // Whatever the replica did not have yet, in one more IN query on the primary
+        if (readReplicaRouting.isEnabled()) {
+            List<String> notReplicated = missing.stream().filter(hash -> !found.containsKey(hash)).toList();
+            if (!notReplicated.isEmpty()) {
+                addRows(found, readReplicaRouting.onPrimary(
+                        () -> tokenRepository.findStatesByAccessTokenHashIn(notReplicated)), expiresAtByHash);
+            }
+        }
+        return found;
+    }
+
+    private void addRows(Map<String, TokenState> found, List<TokenHashState> rows, Map<String, Instant> expiresAtByHash) {
+        for (TokenHashState row : rows) {
+            TokenState state = row.state();
+            found.put(row.accessTokenHash(), state);
+            cache.put(row.accessTokenHash(), new Entry(state, expiresAtByHash.get(row.accessTokenHash())));
+        }
+    }
+
+    public void invalidate(String accessToken) {
+        invalidateHash(TokenDigest.sha256Hex(accessToken));
+    }
+
+    public void invalidateHash(String accessTokenHash) {
+        cache.invalidate(accessTokenHash);
+    }
+
+    public Stats stats() {
+        var stats = cache.stats();
+        return new Stats(stats.hitCount(), stats.missCount(), cache.estimatedSize());
+    }
+
+    // Never keep an entry longer than the configured ttl or past the token's own exp
+    private Duration timeToLive(Entry entry) {
+        if (entry.expiresAt() == null) {
+            return ttl;
+        }
+        Duration untilExpiry = Duration.between(Instant.now(), entry.expiresAt());
+        if (untilExpiry.isNegative()) {
+            return Duration.ZERO;
+        }
+        return untilExpiry.compareTo(ttl) < 0 ? untilExpiry : ttl;
+    }
+
+    private record Entry(TokenState state, Instant expiresAt) {}
+
+    public record Stats(long hits, long misses, long size) {}
+}
@@ -0,0 +1,181 @@
+package unitbv.devops.authenticationapi.token;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import unitbv.devops.authenticationapi.config.TokenWriteBehindProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Optional write-behind for new token rows (token.write-behind.enabled).
+// Tokens issued by concurrent logins are queued and inserted together in one JDBC-batched
+// transaction. Until then they stay in an in-memory pending map, which the filter and the
+// refresh flow consult, so a token is usable as soon as it has been returned to the client.
+// A token leaves the pending map only once its row is committed (or can never be inserted).
+// The queue is bounded: when it is full the caller inserts its token itself.
+@Component
+@Profile("!reactive")
+public class TokenWriteBehind {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenWriteBehind.class);
+
+    private final TokenRepository tokenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TokenWriteBehindProperties properties;
+
+    private final BlockingQueue<PendingToken> queue;
+    private final Map<String, PendingToken> pendingByAccessHash = new ConcurrentHashMap<>();
+    private final Map<String, PendingToken> pendingByRefreshHash = new ConcurrentHashMap<>();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public TokenWriteBehind(TokenRepository tokenRepository,
+                            TransactionTemplate transactionTemplate,
+                            TokenWriteBehindProperties properties) {
+        this.tokenRepository = tokenRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getMaxPending());
+        this.flusher = new Thread(this::flushLoop, "token-write-behind");
+        this.flusher.setDaemon(true);
+        if (properties.isEnabled()) {
+            this.flusher.start();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public void enqueue(Token token) {
+        PendingToken pending = new PendingToken(token, new CompletableFuture<>());
+        // Visible before the flusher can see it, so the flusher's removal cannot run first
+        pendingByAccessHash.put(token.getAccessTokenHash(), pending);
+        pendingByRefreshHash.put(token.getRefreshTokenHash(), pending);
+        if (!queue.offer(pending)) {
+            try {
+                tokenRepository.save(token);
+                pending.persisted().complete(null);
+            } finally {
+                forget(pending);
+            }
+        }
+    }
+
+    public Optional<TokenState> findPendingByAccessHash(String accessTokenHash) {
+        PendingToken pending = pendingByAccessHash.get(accessTokenHash);
+        if (pending == null) {
+            return Optional.empty();
+        }
+        Token token = pending.token();
+        return Optional.of(new TokenState(token.getId(), token.isBlacklisted(), token.getUser().getId()));
+    }
+
+    // The refresh flow updates the row in the database, so it has to exist first
+    public void awaitPersisted(String refreshTokenHash) {
+        PendingToken pending = pendingByRefreshHash.get(refreshTokenHash);
+        if (pending != null) {
+            pending.persisted().join();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingToken> batch = new ArrayList<>();
+        List<PendingToken> retry = new ArrayList<>();
+        while (running || !queue.isEmpty() || !retry.isEmpty()) {
+            try {
+                if (!retry.isEmpty()) {
+                    // Nothing new is taken while the database is failing; the full queue pushes back on callers
+                    Thread.sleep(properties.getRetryDelayMs());
+                    batch.addAll(retry);
+                    retry.clear();
+                } else {
+                    PendingToken first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getMaxDelayMs());
+                    while (batch.size() < properties.getMaxBatchSize()) {
+                        PendingToken next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                insert(batch, retry);
+                batch.clear();
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+        }
+    }
+
+    private void insert(List<PendingToken> batch, List<PendingToken> retry) {
+        List<Token> tokens = batch.stream().map(PendingToken::token).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> tokenRepository.saveAll(tokens));
+            log.debug("Write-behind inserted {} tokens", tokens.size());
+            for (PendingToken pending : batch) {
+                pending.persisted().complete(null);
+                forget(pending);
+            }
+            return;
+        } catch (Exception e) {
+            log.warn("Write-behind insert of {} tokens failed, inserting them one by one: {}", tokens.size(), e.getMessage());
+        }
+
+        // One bad row rolls back the whole batch; insert the rest one at a time
+        for (PendingToken pending : batch) {
+            // The rolled back transaction may have assigned an id that was never committed
+            pending.token().setId(null);
+            try {
+                tokenRepository.save(pending.token());
+                pending.persisted().complete(null);
+                forget(pending);
+            } catch (DataIntegrityViolationException e) {
+                // Can never be inserted; its holder gets 401 and has to log in again
+                pending.persisted().completeExceptionally(e);
+                forget(pending);
+            } catch (Exception e) {
+                retry.add(pending);
+            }
+        }
+    }
+
+    private void forget(PendingToken pending) {
+        pendingByAccessHash.remove(pending.token().getAccessTokenHash(), pending);
+        pendingByRefreshHash.remove(pending.token().getRefreshTokenHash(), pending);
+    }
+
+    private record PendingToken(Token token, CompletableFuture<Void> persisted) {}
+}
@@ -10,6 +10,19 @@ import org.springframework.context.annotation.Configuration;
 public class UserStorageProperties {
 
     private String filePath = "data/users.json";
+    // BINARY keeps the snapshot in binaryFilePath and memory-maps it on startup
+    private SnapshotFormat snapshotFormat = SnapshotFormat.JSON;
+    private String binaryFilePath = "data/users.bin";
+    // Journal entries after which the file backend rewrites users.json and truncates the journal
+    private long journalCompactionThreshold = 10_000;
 
     public String filePath() { return filePath; }
+
+    public long journalCompactionThreshold() { return journalCompactionThreshold; }
+
+    public SnapshotFormat snapshotFormat() { return snapshotFormat; }
+
+    public String binaryFilePath() { return binaryFilePath; }
+
+    public enum SnapshotFormat { JSON, BINARY }
 }
@@ -51,6 +51,10 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private boolean enabled;
 
+    // Bumped to revoke every access token issued so far; each token carries the epoch it was issued under
+    @Column(name = "token_epoch", nullable = false, columnDefinition = "bigint default 0")
+    private long tokenEpoch;
+
     // --- Implementarea metodelor UserDetails ---
 
     @Override
@@ -11,13 +11,9 @@ public final class UserMapper {
     private UserMapper() {}
 
     public static UserResponse toResponse(User u) {
-        System.out.println("Mapping user: " + u.getUsername() + " with ID: " + u.getId());
-
         Set<String> roles = u.getRoles() == null ? Set.of()
                 : u.getRoles().stream().map(Role::name).collect(Collectors.toSet());
 
-        System.out.println("Roles for " + u.getUsername() + ": " + roles);
-
         return new UserResponse(
                 u.getId(),
                 u.getUsername(),
@@ -0,0 +1,31 @@
+package unitbv.devops.authenticationapi.user.repository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import unitbv.devops.authenticationapi.user.entity.User;
+
+// Non-blocking UserRepository for the "reactive" profile; empty Monos where UserRepository returns Optional.empty()
+public interface ReactiveUserRepository {
+
+    // Insert only; errors with DuplicateKeyException (a DataIntegrityViolationException) when username or email is taken
+    Mono<User> insert(User user);
+
+    Mono<User> findById(String id);
+
+    Mono<User> findByUsername(String username);
+
+    // A username match wins over an email match
+    Mono<User> findByUsernameOrEmail(String usernameOrEmail);
+
+    // Keyset pagination ordered by id; afterId == null starts from the beginning
+    Flux<User> findPageAfter(String afterId, int limit);
+
+    // Streams every user in id order as rows arrive from the database
+    Flux<User> findAll();
+
+    // Empty for an unknown or disabled id
+    Mono<Long> findEnabledTokenEpochById(String id);
+
+    // Single-row update, see UserRepository.incrementTokenEpoch; false for an unknown id
+    Mono<Boolean> incrementTokenEpoch(String id, boolean disable);
+}
@@ -1,9 +1,17 @@
 package unitbv.devops.authenticationapi.user.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import unitbv.devops.authenticationapi.user.entity.User;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserJpaRepository extends JpaRepository<User, String> {
 
@@ -11,7 +19,36 @@ public interface UserJpaRepository extends JpaRepository<User, String> {
 
     Optional<User> findByEmail(String email);
 
+    // Can return two rows when one user's username is another user's email
+    @Query("select u from User u where u.username = :value or u.email = :value")
+    List<User> findAllByUsernameOrEmail(String value);
+
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    List<User> findAllByOrderByIdAsc(Limit limit);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+
+    // Server-side cursor: rows arrive in fetch-size chunks (needs an open transaction on PostgreSQL).
+    // Roles are joined in the same statement; batch fetching cannot help a stream, which initializes
+    // each user's EAGER roles on its own. Ordering by id keeps one user's role rows together.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select u from User u left join fetch u.roles order by u.id")
+    Stream<User> streamAll();
+
+    @Query("select u.tokenEpoch from User u where u.id = :id and u.enabled = true")
+    Optional<Long> findEnabledTokenEpochById(String id);
+
+    @Modifying
+    @Query("update User u set u.tokenEpoch = u.tokenEpoch + 1 where u.id = :id")
+    int incrementTokenEpoch(String id);
+
+    @Modifying
+    @Query("update User u set u.tokenEpoch = u.tokenEpoch + 1, u.enabled = false where u.id = :id")
+    int disableAndIncrementTokenEpoch(String id);
 }
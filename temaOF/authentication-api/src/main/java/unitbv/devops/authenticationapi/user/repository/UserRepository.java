@@ -2,23 +2,44 @@ package unitbv.devops.authenticationapi.user.repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import unitbv.devops.authenticationapi.user.entity.User;
 
 public interface UserRepository {
     User save(User user);
 
+    // Insert only; relies on the unique username/email constraints and throws
+    // DuplicateKeyException (a DataIntegrityViolationException) when either is taken
+    User insert(User user);
+
     Optional<User> findById(String id);
 
     Optional<User> findByUsername(String username);
 
     Optional<User> findByEmail(String email);
 
+    // One lookup for login; a username match wins over an email match
+    Optional<User> findByUsernameOrEmail(String usernameOrEmail);
+
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
 
     List<User> findAll();
 
+    // Keyset pagination ordered by id; afterId == null starts from the beginning
+    List<User> findPageAfter(String afterId, int limit);
+
+    // Visits every user without materializing them all; memory use does not grow with the user count
+    void forEachUser(Consumer<? super User> action);
+
     void deleteById(String id);
+
+    // Current token epoch of an enabled user, empty for an unknown or disabled id
+    Optional<Long> findEnabledTokenEpochById(String id);
+
+    // Revokes every token of the user in one single-row update (disable also clears enabled in the
+    // same statement); false for an unknown id
+    boolean incrementTokenEpoch(String id, boolean disable);
 }
@@ -0,0 +1,186 @@
+package unitbv.devops.authenticationapi.user.repository.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import unitbv.devops.authenticationapi.user.entity.Role;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Compact binary snapshot of the file backend, read through a memory-mapped FileChannel.
+//
+// Layout (big endian): int magic, int version, int count, then count records of
+//   int length | id | username | email | passwordHash | byte roleCount, role names |
+//   long createdAt seconds | int createdAt nanos | byte enabled | long tokenEpoch (version 2+)
+// where every string is an int byte length (-1 for null) followed by UTF-8 bytes.
+// Version 1 records end after enabled and read as epoch 0; snapshots are always written as the
+// current version, so a version 1 file is upgraded by the first compaction.
+//
+// Opening the file only walks the id/username/email of each record (needed for the indexes);
+// the rest of a record is decoded the first time it is read.
+final class BinaryUserSnapshot {
+
+    private static final int MAGIC = 0x55535253; // "USRS"
+    static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_TOKEN_EPOCH = 1;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final MappedByteBuffer buffer;
+    private final int version;
+    private final int count;
+
+    private BinaryUserSnapshot(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.version = buffer.getInt(4);
+        if (buffer.getInt(0) != MAGIC || version < VERSION_WITHOUT_TOKEN_EPOCH || version > VERSION) {
+            throw new IllegalStateException("Not a binary users snapshot of version 1 to " + VERSION);
+        }
+        this.count = buffer.getInt(8);
+    }
+
+    static BinaryUserSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new BinaryUserSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    int version() {
+        return version;
+    }
+
+    void forEachKey(KeyConsumer consumer) {
+        int offset = 12;
+        for (int i = 0; i < count; i++) {
+            int length = buffer.getInt(offset);
+            int[] cursor = {offset + 4};
+            String id = readString(cursor);
+            String username = readString(cursor);
+            String email = readString(cursor);
+            consumer.accept(offset, id, username, email);
+            offset += 4 + length;
+        }
+    }
+
+    // Absolute reads only, so concurrent readers can share the mapped buffer
+    StoredUser read(int offset) {
+        int[] cursor = {offset + 4};
+        String id = readString(cursor);
+        String username = readString(cursor);
+        String email = readString(cursor);
+        String passwordHash = readString(cursor);
+
+        int roleCount = buffer.get(cursor[0]++);
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        for (int i = 0; i < roleCount; i++) {
+            roles.add(Role.valueOf(readString(cursor)));
+        }
+
+        long seconds = buffer.getLong(cursor[0]);
+        int nanos = buffer.getInt(cursor[0] + 8);
+        boolean enabled = buffer.get(cursor[0] + 12) != 0;
+        long tokenEpoch = version > VERSION_WITHOUT_TOKEN_EPOCH ? buffer.getLong(cursor[0] + 13) : 0;
+        Instant createdAt = seconds == NO_TIMESTAMP ? null : Instant.ofEpochSecond(seconds, nanos);
+
+        return new StoredUser(id, username, email, passwordHash, roles, createdAt, enabled, tokenEpoch);
+    }
+
+    private String readString(int[] cursor) {
+        int length = buffer.getInt(cursor[0]);
+        cursor[0] += 4;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(cursor[0], bytes);
+        cursor[0] += length;
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void write(Path path, List<StoredUser> users) throws IOException {
+        try (OutputStream file = Files.newOutputStream(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(users.size());
+
+            ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+            DataOutputStream record = new DataOutputStream(recordBytes);
+            for (StoredUser user : users) {
+                recordBytes.reset();
+                writeString(record, user.id());
+                writeString(record, user.username());
+                writeString(record, user.email());
+                writeString(record, user.passwordHash());
+                Set<Role> roles = user.roles() == null ? Set.of() : user.roles();
+                record.writeByte(roles.size());
+                for (Role role : roles) {
+                    writeString(record, role.name());
+                }
+                record.writeLong(user.createdAt() == null ? NO_TIMESTAMP : user.createdAt().getEpochSecond());
+                record.writeInt(user.createdAt() == null ? 0 : user.createdAt().getNano());
+                record.writeByte(user.enabled() ? 1 : 0);
+                record.writeLong(user.tokenEpoch());
+
+                out.writeInt(recordBytes.size());
+                recordBytes.writeTo(out);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static void convert(ObjectMapper mapper, Path jsonPath, Path binaryPath) throws IOException {
+        List<StoredUser> users = mapper.readValue(jsonPath.toFile(), new TypeReference<>() {});
+        write(binaryPath, users);
+    }
+
+    // Offline converter: java ... BinaryUserSnapshot data/users.json data/users.bin
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: BinaryUserSnapshot <users.json> <users.bin>");
+            return;
+        }
+        ObjectMapper mapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+        Path binaryPath = Paths.get(args[1]);
+        convert(mapper, Paths.get(args[0]), binaryPath);
+        System.out.println("Wrote " + open(binaryPath).count() + " users to " + binaryPath);
+    }
+
+    @FunctionalInterface
+    interface KeyConsumer {
+        void accept(int offset, String id, String username, String email);
+    }
+}
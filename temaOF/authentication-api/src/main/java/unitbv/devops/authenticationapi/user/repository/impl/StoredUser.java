@@ -0,0 +1,43 @@
+package unitbv.devops.authenticationapi.user.repository.impl;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import unitbv.devops.authenticationapi.user.entity.Role;
+import unitbv.devops.authenticationapi.user.entity.User;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+// On-disk shape of a user for the file backend (same fields as the original users.json),
+// so the UserDetails getters and JPA associations of User never end up in the files
+@JsonIgnoreProperties(ignoreUnknown = true)
+record StoredUser(
+        String id,
+        String username,
+        String email,
+        String passwordHash,
+        Set<Role> roles,
+        Instant createdAt,
+        boolean enabled,
+        long tokenEpoch
+) {
+
+    static StoredUser from(User u) {
+        return new StoredUser(u.getId(), u.getUsername(), u.getEmail(), u.getPasswordHash(),
+                u.getRoles() == null ? null : Set.copyOf(u.getRoles()), u.getCreatedAt(), u.isEnabled(),
+                u.getTokenEpoch());
+    }
+
+    User toUser() {
+        return User.builder()
+                .id(id)
+                .username(username)
+                .email(email)
+                .passwordHash(passwordHash)
+                .roles(roles == null ? new HashSet<>() : new HashSet<>(roles))
+                .createdAt(createdAt)
+                .enabled(enabled)
+                .tokenEpoch(tokenEpoch)
+                .build();
+    }
+}
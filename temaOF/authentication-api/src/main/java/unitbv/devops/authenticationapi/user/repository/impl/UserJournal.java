@@ -0,0 +1,299 @@
+package unitbv.devops.authenticationapi.user.repository.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import unitbv.devops.authenticationapi.user.entity.User;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Append-only log of user upserts/deletes (one JSON object per line), split into numbered segments:
+// users.json.journal is segment 0, later ones are users.json.journal.1, .2, ...
+// A single writer thread drains everything queued since its last write, appends it
+// and fsyncs once (group commit). After enough entries it rotates to a new segment and hands
+// compaction to a second thread: the current state is written as a new snapshot, then the
+// segments before the rotation are deleted. Appends never wait for a snapshot to be written.
+final class UserJournal implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(UserJournal.class);
+    private static final int MAX_BATCH = 1024;
+
+    private final Path journalPath;
+    private final Path directory;
+    private final ObjectMapper mapper;
+    private final long compactionThreshold;
+    private final Supplier<List<StoredUser>> currentState;
+    private final Consumer<List<StoredUser>> snapshotWriter;
+
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    // Guards running against the check-and-add in enqueue, so nothing is queued after close
+    private final Object shutdownLock = new Object();
+    private final Thread writer;
+    private final ExecutorService compactor;
+    private volatile boolean running = true;
+    private volatile boolean compacting;
+
+    // Only touched by the writer thread once it is started
+    private FileChannel channel;
+    private long segment;
+    private long entriesSinceCompaction;
+
+    UserJournal(Path journalPath,
+                ObjectMapper mapper,
+                long compactionThreshold,
+                Supplier<List<StoredUser>> currentState,
+                Consumer<List<StoredUser>> snapshotWriter) {
+        this.journalPath = journalPath;
+        this.directory = journalPath.toAbsolutePath().getParent();
+        this.mapper = mapper;
+        this.compactionThreshold = compactionThreshold;
+        this.currentState = currentState;
+        this.snapshotWriter = snapshotWriter;
+        this.writer = new Thread(this::writeLoop, "users-journal");
+        this.writer.setDaemon(true);
+        this.compactor = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "users-journal-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Replays every segment, oldest first, on top of an already loaded snapshot and opens the newest
+    // one for appending. Segments left behind by an interrupted compaction are replayed as well: a
+    // newer snapshot already contains their entries, and replaying them in order ends in the same state.
+    // A torn last line (crash mid-write) is dropped.
+    void replayAndOpen(Consumer<StoredUser> upsert, Consumer<String> delete) {
+        try {
+            TreeMap<Long, Path> segments = segments();
+            long validLength = 0;
+            segment = segments.isEmpty() ? 0 : segments.lastKey();
+            for (var existing : segments.entrySet()) {
+                validLength = replay(existing.getValue(), upsert, delete);
+            }
+            channel = FileChannel.open(segmentPath(segment),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+            channel.truncate(validLength);
+            channel.position(validLength);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot open users journal: " + journalPath, e);
+        }
+        writer.start();
+    }
+
+    // Returns the length of the valid prefix of the segment
+    private long replay(Path path, Consumer<StoredUser> upsert, Consumer<String> delete) throws IOException {
+        long validLength = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Entry entry;
+                try {
+                    entry = mapper.readValue(line, Entry.class);
+                } catch (IOException e) {
+                    log.warn("Ignoring torn users journal tail in {} at byte {}", path, validLength);
+                    break;
+                }
+                if (entry.op() == Op.PUT) {
+                    upsert.accept(entry.user());
+                } else {
+                    delete.accept(entry.id());
+                }
+                validLength += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                entriesSinceCompaction++;
+            }
+        }
+        return validLength;
+    }
+
+    private TreeMap<Long, Path> segments() throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        if (Files.exists(journalPath)) {
+            segments.put(0L, journalPath);
+        }
+        String prefix = journalPath.getFileName() + ".";
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.startsWith(prefix) && name.length() > prefix.length()
+                        && name.substring(prefix.length()).chars().allMatch(Character::isDigit)) {
+                    segments.put(Long.parseLong(name.substring(prefix.length())), file);
+                }
+            });
+        }
+        return segments;
+    }
+
+    private Path segmentPath(long number) {
+        return number == 0 ? journalPath : journalPath.resolveSibling(journalPath.getFileName() + "." + number);
+    }
+
+    // Called under the repository write lock so the journal order matches the in-memory order.
+    // The returned future completes once the entry is fsynced; wait on it outside the lock.
+    CompletableFuture<Void> appendPut(User user) {
+        return enqueue(new Entry(Op.PUT, user.getId(), StoredUser.from(user)));
+    }
+
+    CompletableFuture<Void> appendDelete(String id) {
+        return enqueue(new Entry(Op.DELETE, id, null));
+    }
+
+    @Override
+    public void close() {
+        // No interrupt: interrupting a thread inside FileChannel.write closes the channel
+        synchronized (shutdownLock) {
+            running = false;
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+            if (!writer.isAlive()) {
+                failPending();
+            }
+            compactor.shutdown();
+            compactor.awaitTermination(10, TimeUnit.SECONDS);
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Error closing users journal", e);
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(Entry entry) {
+        byte[] line;
+        try {
+            // Serialized now, so later mutations of the same User instance are not picked up
+            line = (mapper.writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot serialize users journal entry", e);
+        }
+        Pending pending = new Pending(line, new CompletableFuture<>());
+        synchronized (shutdownLock) {
+            if (!running) {
+                throw new IllegalStateException("Users journal is closed");
+            }
+            queue.add(pending);
+        }
+        return pending.done();
+    }
+
+    // Anything the writer left behind would otherwise never complete and hang its caller
+    private void failPending() {
+        List<Pending> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        for (Pending pending : leftover) {
+            pending.done().completeExceptionally(new IllegalStateException("Users journal is closed"));
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            writeBatch(batch);
+            batch.clear();
+
+            if (entriesSinceCompaction >= compactionThreshold && !compacting) {
+                rotate();
+            }
+        }
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        try {
+            for (Pending pending : batch) {
+                ByteBuffer buffer = ByteBuffer.wrap(pending.line());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            channel.force(false);
+            entriesSinceCompaction += batch.size();
+            for (Pending pending : batch) {
+                pending.done().complete(null);
+            }
+        } catch (IOException e) {
+            for (Pending pending : batch) {
+                pending.done().completeExceptionally(e);
+            }
+        }
+    }
+
+    // Switches appends to a fresh segment and compacts everything before it in the background.
+    // The old segment was fsynced by the last batch, so only the new file is created here.
+    private void rotate() {
+        FileChannel next;
+        try {
+            next = FileChannel.open(segmentPath(segment + 1),
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        } catch (IOException e) {
+            log.warn("Users journal rotation failed, will retry", e);
+            entriesSinceCompaction = 0;
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Error closing users journal segment", e);
+        }
+        channel = next;
+        segment++;
+        entriesSinceCompaction = 0;
+        compacting = true;
+        long firstKept = segment;
+        compactor.execute(() -> compact(firstKept));
+    }
+
+    // Every entry in the segments before firstKept was applied in memory before it was queued, so it is
+    // part of the state copied here. Entries of newer segments may end up in both; replaying them is idempotent.
+    // The old segments are only deleted once the snapshot is durable; if compaction fails they stay and
+    // the next rotation covers them too.
+    private void compact(long firstKept) {
+        try {
+            snapshotWriter.accept(currentState.get());
+            for (var old : segments().headMap(firstKept).values()) {
+                Files.deleteIfExists(old);
+            }
+        } catch (Exception e) {
+            log.warn("Users journal compaction failed, will retry", e);
+        } finally {
+            compacting = false;
+        }
+    }
+
+    enum Op { PUT, DELETE }
+
+    record Entry(Op op, String id, StoredUser user) {}
+
+    private record Pending(byte[] line, CompletableFuture<Void> done) {}
+}
@@ -1,21 +1,34 @@
 package unitbv.devops.authenticationapi.user.repository.impl;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import unitbv.devops.authenticationapi.user.entity.User;
 import unitbv.devops.authenticationapi.user.repository.UserJpaRepository;
 import unitbv.devops.authenticationapi.user.repository.UserRepository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+// Every call is timed as user.repository{class,method}; TokenRepository and UserJpaRepository
+// calls are timed by Spring Data as spring.data.repository.invocations.
+// The readOnly lookups go to the replica pool when db.replica.enabled is set.
 @Repository
+@Profile("!reactive")
 @Primary
+@Timed("user.repository")
 @RequiredArgsConstructor
 public class UserRepositoryDb implements UserRepository {
 
     private final UserJpaRepository jpaRepo;
+    private final EntityManager entityManager;
 
     @Override
     public User save(User user) {
@@ -23,37 +36,95 @@ public class UserRepositoryDb implements UserRepository {
     }
 
     @Override
+    @Transactional
+    public User insert(User user) {
+        // persist never merges, and the flush surfaces a constraint violation here instead of at commit
+        entityManager.persist(user);
+        entityManager.flush();
+        return user;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<User> findById(String id) {
         return jpaRepo.findById(id);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<User> findByUsername(String username) {
         return jpaRepo.findByUsername(username);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
         return jpaRepo.findByEmail(email);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByUsernameOrEmail(String usernameOrEmail) {
+        List<User> matches = jpaRepo.findAllByUsernameOrEmail(usernameOrEmail);
+        return matches.stream()
+                .filter(user -> usernameOrEmail.equals(user.getUsername()))
+                .findFirst()
+                .or(() -> matches.stream().findFirst());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public boolean existsByUsername(String username) {
         return jpaRepo.existsByUsername(username);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
         return jpaRepo.existsByEmail(email);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<User> findAll() {
         return jpaRepo.findAll();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findPageAfter(String afterId, int limit) {
+        return afterId == null
+                ? jpaRepo.findAllByOrderByIdAsc(Limit.of(limit))
+                : jpaRepo.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachUser(Consumer<? super User> action) {
+        try (Stream<User> users = jpaRepo.streamAll()) {
+            users.forEach(user -> {
+                action.accept(user);
+                // Keep the persistence context from growing with every streamed row
+                entityManager.detach(user);
+            });
+        }
+    }
+
     @Override
     public void deleteById(String id) {
         jpaRepo.deleteById(id);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findEnabledTokenEpochById(String id) {
+        return jpaRepo.findEnabledTokenEpochById(id);
+    }
+
+    @Override
+    @Transactional
+    public boolean incrementTokenEpoch(String id, boolean disable) {
+        int updated = disable ? jpaRepo.disableAndIncrementTokenEpoch(id) : jpaRepo.incrementTokenEpoch(id);
+        return updated > 0;
+    }
 }
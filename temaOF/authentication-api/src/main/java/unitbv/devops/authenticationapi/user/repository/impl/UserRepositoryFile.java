@@ -7,23 +7,47 @@ import unitbv.devops.authenticationapi.user.config.UserStorageProperties;
 import unitbv.devops.authenticationapi.user.entity.User;
 import unitbv.devops.authenticationapi.user.repository.UserRepository;
 
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Repository;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
-public class UserRepositoryFile implements UserRepository {
+public class UserRepositoryFile implements UserRepository, AutoCloseable {
 
+    private static final int ITERATION_CHUNK = 500;
+
+    private final Path jsonPath;
     private final Path storagePath;
+    private final boolean binarySnapshot;
     private final ObjectMapper mapper;
+    private final UserJournal journal;
+    // A j.u.c. lock rather than a monitor, so virtual threads waiting on it (or doing file I/O under it) unmount instead of pinning
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
-    private final Map<String, User> byId = new HashMap<>();
+    private final Map<String, UserSlot> byId = new HashMap<>();
+    // Sorted view of the ids for keyset pagination
+    private final NavigableSet<String> sortedIds = new TreeSet<>();
+    // Case-folded secondary indexes, kept in sync with byId under the write lock
+    private final Map<String, String> idByUsername = new HashMap<>();
+    private final Map<String, String> idByEmail = new HashMap<>();
+    private final Map<String, IndexKeys> indexKeysById = new HashMap<>();
 
     public UserRepositoryFile(ObjectMapper mapper, UserStorageProperties props) {
         this.mapper = mapper;
-        this.storagePath = Paths.get(props.filePath());
+        this.jsonPath = Paths.get(props.filePath());
+        this.binarySnapshot = props.snapshotFormat() == UserStorageProperties.SnapshotFormat.BINARY;
+        this.storagePath = binarySnapshot ? Paths.get(props.binaryFilePath()) : jsonPath;
+        this.journal = new UserJournal(Paths.get(props.filePath() + ".journal"), mapper,
+                props.journalCompactionThreshold(), this::snapshotState, this::writeSnapshot);
         initStorage();
         loadAll();
     }
@@ -32,21 +56,38 @@ public class UserRepositoryFile implements UserRepository {
         try {
             Files.createDirectories(storagePath.getParent() == null ? Paths.get(".") : storagePath.getParent());
             if (Files.notExists(storagePath)) {
-                Files.writeString(storagePath, "[]");
+                if (!binarySnapshot) {
+                    Files.writeString(storagePath, "[]");
+                } else if (Files.exists(jsonPath)) {
+                    // First start in binary mode: convert the existing users.json once
+                    BinaryUserSnapshot.convert(mapper, jsonPath, storagePath);
+                } else {
+                    BinaryUserSnapshot.write(storagePath, List.of());
+                }
             }
         } catch (IOException e) {
             throw new RuntimeException("Cannot initialize user storage: " + storagePath, e);
         }
     }
 
+    // The snapshot holds the last compacted state; the journal holds every change made after it
     private void loadAll() {
         lock.writeLock().lock();
         try {
-            List<User> users = mapper.readValue(Files.readString(storagePath), new TypeReference<>() {});
             byId.clear();
-            for (User u : users) {
-                byId.put(u.getId(), u);
+            sortedIds.clear();
+            idByUsername.clear();
+            idByEmail.clear();
+            indexKeysById.clear();
+            if (binarySnapshot) {
+                loadBinarySnapshot();
+            } else {
+                List<StoredUser> users = mapper.readValue(Files.readString(storagePath), new TypeReference<>() {});
+                for (StoredUser stored : users) {
+                    put(stored.toUser());
+                }
             }
+            journal.replayAndOpen(stored -> put(stored.toUser()), this::remove);
         } catch (IOException e) {
             throw new RuntimeException("Cannot read users file: " + storagePath, e);
         } finally {
@@ -54,39 +95,109 @@ public class UserRepositoryFile implements UserRepository {
         }
     }
 
-    private void persist() {
+    // Only the keys are decoded here; each record is decoded when it is first read
+    private void loadBinarySnapshot() throws IOException {
+        BinaryUserSnapshot snapshot = BinaryUserSnapshot.open(storagePath);
+        snapshot.forEachKey((offset, id, username, email) -> {
+            byId.put(id, new UserSlot(snapshot, offset));
+            sortedIds.add(id);
+            index(id, username, email);
+        });
+    }
+
+    private List<StoredUser> snapshotState() {
         lock.readLock().lock();
         try {
-            List<User> users = new ArrayList<>(byId.values());
-            Files.writeString(storagePath, mapper.writerWithDefaultPrettyPrinter().writeValueAsString(users),
-                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.CREATE);
-        } catch (IOException e) {
-            throw new RuntimeException("Cannot write users file: " + storagePath, e);
+            List<StoredUser> users = new ArrayList<>(byId.size());
+            for (UserSlot slot : byId.values()) {
+                users.add(slot.stored());
+            }
+            return users;
         } finally {
             lock.readLock().unlock();
         }
     }
 
+    // Runs on the journal compaction thread; the rename keeps users.json whole on a crash
+    private void writeSnapshot(List<StoredUser> users) {
+        Path tmp = storagePath.resolveSibling(storagePath.getFileName() + ".tmp");
+        try {
+            if (binarySnapshot) {
+                BinaryUserSnapshot.write(tmp, users);
+            } else {
+                try (OutputStream out = Files.newOutputStream(tmp,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    mapper.writeValue(out, users);
+                }
+                try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                    channel.force(true);
+                }
+            }
+            Files.move(tmp, storagePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write users file: " + storagePath, e);
+        }
+    }
+
+    private static void awaitDurable(CompletableFuture<Void> written) {
+        try {
+            written.join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Cannot write users journal", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+
     @Override
     public User save(User user) {
+        CompletableFuture<Void> written;
         lock.writeLock().lock();
         try {
             if (user.getId() == null || user.getId().isBlank()) {
                 user.setId(UUID.randomUUID().toString());
             }
-            byId.put(user.getId(), user);
-            persist();
-            return user;
+            put(user);
+            written = journal.appendPut(user);
         } finally {
             lock.writeLock().unlock();
         }
+        // Wait for the fsync outside the lock so concurrent writers share one group commit
+        awaitDurable(written);
+        return user;
+    }
+
+    @Override
+    public User insert(User user) {
+        CompletableFuture<Void> written;
+        lock.writeLock().lock();
+        try {
+            // Checked and applied under one lock, so two inserts of the same name cannot both pass
+            if (idByUsername.containsKey(fold(user.getUsername())) || idByEmail.containsKey(fold(user.getEmail()))) {
+                throw new DuplicateKeyException("Username or email already in use");
+            }
+            if (user.getId() == null || user.getId().isBlank()) {
+                user.setId(UUID.randomUUID().toString());
+            } else if (byId.containsKey(user.getId())) {
+                throw new DuplicateKeyException("User id already in use: " + user.getId());
+            }
+            put(user);
+            written = journal.appendPut(user);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(written);
+        return user;
     }
 
     @Override
     public Optional<User> findById(String id) {
         lock.readLock().lock();
         try {
-            return Optional.ofNullable(byId.get(id));
+            return Optional.ofNullable(byId.get(id)).map(UserSlot::user);
         } finally {
             lock.readLock().unlock();
         }
@@ -96,9 +207,7 @@ public class UserRepositoryFile implements UserRepository {
     public Optional<User> findByUsername(String username) {
         lock.readLock().lock();
         try {
-            return byId.values().stream()
-                    .filter(u -> u.getUsername() != null && u.getUsername().equalsIgnoreCase(username))
-                    .findFirst();
+            return lookup(idByUsername, username);
         } finally {
             lock.readLock().unlock();
         }
@@ -108,9 +217,17 @@ public class UserRepositoryFile implements UserRepository {
     public Optional<User> findByEmail(String email) {
         lock.readLock().lock();
         try {
-            return byId.values().stream()
-                    .filter(u -> u.getEmail() != null && u.getEmail().equalsIgnoreCase(email))
-                    .findFirst();
+            return lookup(idByEmail, email);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<User> findByUsernameOrEmail(String usernameOrEmail) {
+        lock.readLock().lock();
+        try {
+            return lookup(idByUsername, usernameOrEmail).or(() -> lookup(idByEmail, usernameOrEmail));
         } finally {
             lock.readLock().unlock();
         }
@@ -118,32 +235,218 @@ public class UserRepositoryFile implements UserRepository {
 
     @Override
     public boolean existsByUsername(String username) {
-        return findByUsername(username).isPresent();
+        return containsKey(idByUsername, username);
     }
 
     @Override
     public boolean existsByEmail(String email) {
-        return findByEmail(email).isPresent();
+        return containsKey(idByEmail, email);
     }
 
     @Override
     public List<User> findAll() {
         lock.readLock().lock();
         try {
-            return new ArrayList<>(byId.values());
+            List<User> users = new ArrayList<>(byId.size());
+            for (UserSlot slot : byId.values()) {
+                users.add(slot.user());
+            }
+            return users;
         } finally {
             lock.readLock().unlock();
         }
     }
 
+    @Override
+    public List<User> findPageAfter(String afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            SortedSet<String> ids = afterId == null ? sortedIds : sortedIds.tailSet(afterId, false);
+            List<User> page = new ArrayList<>(Math.min(limit, ids.size()));
+            for (String id : ids) {
+                if (page.size() == limit) {
+                    break;
+                }
+                page.add(byId.get(id).user());
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Walks the users in id order one chunk at a time, so the read lock is never held for the whole scan
+    @Override
+    public void forEachUser(Consumer<? super User> action) {
+        String afterId = null;
+        List<User> chunk;
+        do {
+            chunk = findPageAfter(afterId, ITERATION_CHUNK);
+            for (User user : chunk) {
+                action.accept(user);
+            }
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == ITERATION_CHUNK);
+    }
+
     @Override
     public void deleteById(String id) {
+        CompletableFuture<Void> written;
         lock.writeLock().lock();
         try {
-            byId.remove(id);
-            persist();
+            remove(id);
+            written = journal.appendDelete(id);
         } finally {
             lock.writeLock().unlock();
         }
+        awaitDurable(written);
+    }
+
+    @Override
+    public Optional<Long> findEnabledTokenEpochById(String id) {
+        return findById(id).filter(User::isEnabled).map(User::getTokenEpoch);
+    }
+
+    @Override
+    public boolean incrementTokenEpoch(String id, boolean disable) {
+        CompletableFuture<Void> written;
+        lock.writeLock().lock();
+        try {
+            UserSlot slot = byId.get(id);
+            if (slot == null) {
+                return false;
+            }
+            // A new instance, like save: readers outside the lock may still hold the current one
+            User current = slot.user();
+            User updated = User.builder()
+                    .id(current.getId())
+                    .username(current.getUsername())
+                    .email(current.getEmail())
+                    .passwordHash(current.getPasswordHash())
+                    .roles(current.getRoles())
+                    .createdAt(current.getCreatedAt())
+                    .enabled(current.isEnabled() && !disable)
+                    .tokenEpoch(current.getTokenEpoch() + 1)
+                    .build();
+            put(updated);
+            written = journal.appendPut(updated);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        awaitDurable(written);
+        return true;
+    }
+
+    // Callers hold the write lock
+    private void put(User user) {
+        byId.put(user.getId(), new UserSlot(user));
+        sortedIds.add(user.getId());
+        unindex(user.getId());
+        index(user.getId(), user.getUsername(), user.getEmail());
+    }
+
+    private void remove(String id) {
+        byId.remove(id);
+        sortedIds.remove(id);
+        unindex(id);
+    }
+
+    private Optional<User> lookup(Map<String, String> index, String value) {
+        if (value == null) {
+            return Optional.empty();
+        }
+        String id = index.get(fold(value));
+        return id == null ? Optional.empty() : Optional.ofNullable(byId.get(id)).map(UserSlot::user);
+    }
+
+    private boolean containsKey(Map<String, String> index, String value) {
+        if (value == null) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return index.containsKey(fold(value));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold the write lock. The keys are remembered per id because a saved User
+    // may be the same (already mutated) instance that is in byId.
+    private void index(String id, String username, String email) {
+        String usernameKey = fold(username);
+        String emailKey = fold(email);
+        if (usernameKey != null) {
+            idByUsername.put(usernameKey, id);
+        }
+        if (emailKey != null) {
+            idByEmail.put(emailKey, id);
+        }
+        indexKeysById.put(id, new IndexKeys(usernameKey, emailKey));
+    }
+
+    private void unindex(String id) {
+        IndexKeys keys = indexKeysById.remove(id);
+        if (keys == null) {
+            return;
+        }
+        if (keys.username() != null) {
+            idByUsername.remove(keys.username(), id);
+        }
+        if (keys.email() != null) {
+            idByEmail.remove(keys.email(), id);
+        }
+    }
+
+    private static String fold(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private record IndexKeys(String username, String email) {}
+
+    // Either a live User or a not yet decoded record of the binary snapshot.
+    // Lock-free: a monitor held across the mmap read would pin a virtual thread on a page fault.
+    private static final class UserSlot {
+        private static final VarHandle USER;
+
+        static {
+            try {
+                USER = MethodHandles.lookup().findVarHandle(UserSlot.class, "user", User.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final BinaryUserSnapshot snapshot;
+        private final int offset;
+        private volatile User user;
+
+        UserSlot(User user) {
+            this.snapshot = null;
+            this.offset = -1;
+            this.user = user;
+        }
+
+        UserSlot(BinaryUserSnapshot snapshot, int offset) {
+            this.snapshot = snapshot;
+            this.offset = offset;
+        }
+
+        User user() {
+            User current = user;
+            if (current != null) {
+                return current;
+            }
+            // Concurrent first reads may both decode; everyone gets the instance that won
+            User decoded = snapshot.read(offset).toUser();
+            return USER.compareAndSet(this, null, decoded) ? decoded : user;
+        }
+
+        StoredUser stored() {
+            User current = user;
+            return current == null ? snapshot.read(offset) : StoredUser.from(current);
+        }
     }
 }
@@ -0,0 +1,161 @@
+package unitbv.devops.authenticationapi.user.repository.impl;
+
+import io.r2dbc.spi.Row;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import unitbv.devops.authenticationapi.user.entity.Role;
+import unitbv.devops.authenticationapi.user.entity.User;
+import unitbv.devops.authenticationapi.user.repository.ReactiveUserRepository;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+// Reads the users / user_roles tables the JPA mapping creates. Users and their roles come back in
+// one joined query ordered by id, and consecutive rows of the same user are folded into one User.
+@Repository
+@Profile("reactive")
+public class UserRepositoryR2dbc implements ReactiveUserRepository {
+
+    private static final String SELECT = "select u.id, u.username, u.email, u.password_hash, u.created_at, " +
+            "u.enabled, u.token_epoch, r.role from ";
+    private static final String JOIN_ROLES = " u left join user_roles r on r.user_id = u.id ";
+
+    private final DatabaseClient db;
+    private final TransactionalOperator transactionalOperator;
+
+    public UserRepositoryR2dbc(DatabaseClient db, TransactionalOperator transactionalOperator) {
+        this.db = db;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    @Override
+    public Mono<User> insert(User user) {
+        Mono<Long> userRow = db.sql("insert into users (id, username, email, password_hash, created_at, enabled, " +
+                        "token_epoch) values (:id, :username, :email, :passwordHash, :createdAt, :enabled, :tokenEpoch)")
+                .bind("id", user.getId())
+                .bind("username", user.getUsername())
+                .bind("email", user.getEmail())
+                .bind("passwordHash", user.getPasswordHash())
+                .bind("createdAt", user.getCreatedAt())
+                .bind("enabled", user.isEnabled())
+                .bind("tokenEpoch", user.getTokenEpoch())
+                .fetch()
+                .rowsUpdated();
+        Flux<Long> roleRows = Flux.fromIterable(user.getRoles() == null ? Set.<Role>of() : user.getRoles())
+                .concatMap(role -> db.sql("insert into user_roles (user_id, role) values (:userId, :role)")
+                        .bind("userId", user.getId())
+                        .bind("role", role.name())
+                        .fetch()
+                        .rowsUpdated());
+        return transactionalOperator.transactional(userRow.thenMany(roleRows).then(Mono.just(user)));
+    }
+
+    @Override
+    public Mono<User> findById(String id) {
+        return users(db.sql(SELECT + "users" + JOIN_ROLES + "where u.id = :id")
+                .bind("id", id))
+                .next();
+    }
+
+    @Override
+    public Mono<User> findByUsername(String username) {
+        return users(db.sql(SELECT + "users" + JOIN_ROLES + "where u.username = :username")
+                .bind("username", username))
+                .next();
+    }
+
+    @Override
+    public Mono<User> findByUsernameOrEmail(String usernameOrEmail) {
+        // Can return two users when one user's username is another user's email
+        return users(db.sql(SELECT + "users" + JOIN_ROLES + "where u.username = :value or u.email = :value order by u.id")
+                .bind("value", usernameOrEmail))
+                .collectList()
+                .flatMap(matches -> Mono.justOrEmpty(matches.stream()
+                        .filter(user -> usernameOrEmail.equals(user.getUsername()))
+                        .findFirst()
+                        .or(() -> matches.stream().findFirst())));
+    }
+
+    @Override
+    public Flux<User> findPageAfter(String afterId, int limit) {
+        // The limit applies to users, not to joined rows, so it goes into the derived table
+        DatabaseClient.GenericExecuteSpec spec = afterId == null
+                ? db.sql(SELECT + "(select * from users order by id limit :limit)" + JOIN_ROLES + "order by u.id")
+                : db.sql(SELECT + "(select * from users where id > :afterId order by id limit :limit)" + JOIN_ROLES +
+                        "order by u.id").bind("afterId", afterId);
+        return users(spec.bind("limit", limit));
+    }
+
+    @Override
+    public Flux<User> findAll() {
+        return users(db.sql(SELECT + "users" + JOIN_ROLES + "order by u.id"));
+    }
+
+    @Override
+    public Mono<Long> findEnabledTokenEpochById(String id) {
+        return db.sql("select token_epoch from users where id = :id and enabled = true")
+                .bind("id", id)
+                .map((row, metadata) -> row.get("token_epoch", Long.class))
+                .one();
+    }
+
+    @Override
+    public Mono<Boolean> incrementTokenEpoch(String id, boolean disable) {
+        String sql = disable
+                ? "update users set token_epoch = token_epoch + 1, enabled = false where id = :id"
+                : "update users set token_epoch = token_epoch + 1 where id = :id";
+        return db.sql(sql)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .map(updated -> updated > 0);
+    }
+
+    private static Flux<User> users(DatabaseClient.GenericExecuteSpec spec) {
+        return spec.map((row, metadata) -> toRow(row))
+                .all()
+                .bufferUntilChanged(UserRow::id)
+                .map(UserRepositoryR2dbc::toUser);
+    }
+
+    private static UserRow toRow(Row row) {
+        return new UserRow(
+                row.get("id", String.class),
+                row.get("username", String.class),
+                row.get("email", String.class),
+                row.get("password_hash", String.class),
+                row.get("created_at", Instant.class),
+                Boolean.TRUE.equals(row.get("enabled", Boolean.class)),
+                row.get("token_epoch", Long.class),
+                row.get("role", String.class));
+    }
+
+    private static User toUser(List<UserRow> rows) {
+        UserRow first = rows.get(0);
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        for (UserRow row : rows) {
+            if (row.role() != null) {
+                roles.add(Role.valueOf(row.role()));
+            }
+        }
+        return User.builder()
+                .id(first.id())
+                .username(first.username())
+                .email(first.email())
+                .passwordHash(first.passwordHash())
+                .createdAt(first.createdAt())
+                .enabled(first.enabled())
+                .tokenEpoch(first.tokenEpoch() == null ? 0 : first.tokenEpoch())
+                .roles(roles)
+                .build();
+    }
+
+    private record UserRow(String id, String username, String email, String passwordHash,
+                           Instant createdAt, boolean enabled, Long tokenEpoch, String role) {}
+}
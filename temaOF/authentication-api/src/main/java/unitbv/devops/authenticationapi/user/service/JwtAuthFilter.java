@@ -1,36 +1,74 @@
 package unitbv.devops.authenticationapi.user.service;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import unitbv.devops.authenticationapi.token.Token;
-import unitbv.devops.authenticationapi.token.TokenRepository;
+import unitbv.devops.authenticationapi.config.JwtProperties;
+import unitbv.devops.authenticationapi.token.TokenEpochCache;
+import unitbv.devops.authenticationapi.token.TokenState;
+import unitbv.devops.authenticationapi.token.TokenStateCache;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 
 @Component
+@Profile("!reactive")
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthFilter.class);
+
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
-    private final TokenRepository tokenRepository;
+    private final TokenStateCache tokenStateCache;
+    private final TokenEpochCache tokenEpochCache;
+    private final boolean claimsOnlyAuth;
+
+    // auth.filter.stage{stage=verify|revocation|user_load} and auth.filter.result{result=...}
+    private final Timer verifyTimer;
+    private final Timer revocationTimer;
+    private final Timer userLoadTimer;
+    private final Counter granted;
+    private final Counter missingHeader;
+    private final Counter revoked;
+    private final Counter rejected;
 
     public JwtAuthFilter(JwtService jwtService,
                          UserDetailsService userDetailsService,
-                         TokenRepository tokenRepository) {
+                         TokenStateCache tokenStateCache,
+                         TokenEpochCache tokenEpochCache,
+                         JwtProperties jwtProperties,
+                         MeterRegistry meterRegistry) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
-        this.tokenRepository = tokenRepository;
+        this.tokenStateCache = tokenStateCache;
+        this.tokenEpochCache = tokenEpochCache;
+        this.claimsOnlyAuth = jwtProperties.isClaimsOnlyAuth();
+
+        this.verifyTimer = stageTimer(meterRegistry, "verify");
+        this.revocationTimer = stageTimer(meterRegistry, "revocation");
+        this.userLoadTimer = stageTimer(meterRegistry, "user_load");
+        this.granted = resultCounter(meterRegistry, "granted");
+        this.missingHeader = resultCounter(meterRegistry, "missing_header");
+        this.revoked = resultCounter(meterRegistry, "revoked");
+        this.rejected = resultCounter(meterRegistry, "rejected");
     }
 
     @Override
@@ -43,17 +81,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         final String authHeader = request.getHeader("Authorization");
         final String requestURI = request.getRequestURI();
 
-        System.out.println("=== JWT FILTER - Checking: " + requestURI);
-
         // Skip filter for ALL public endpoints
         if (isPublicEndpoint(requestURI)) {
-            System.out.println("✅ Skipping JWT filter for public endpoint: " + requestURI);
             filterChain.doFilter(request, response);
             return;
         }
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            System.out.println("❌ Missing or invalid Authorization header for: " + requestURI);
+            log.debug("Missing or invalid Authorization header for {}", requestURI);
+            missingHeader.increment();
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("Missing Authorization header");
             return;
@@ -63,47 +99,50 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String jwt = authHeader.substring(7).replaceAll("^\"|\"$", "");
 
         try {
-            String username = jwtService.extractUsername(jwt);
-            System.out.println("Username from token: " + username);
+            DecodedJWT decoded = verifyTimer.recordCallable(() -> jwtService.verify(jwt));
+            String username = decoded.getSubject();
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-
-                // Check token validity
-                boolean isTokenValid = jwtService.isTokenValid(jwt, userDetails);
-                System.out.println("Token JWT valid: " + isTokenValid);
-
-                // STRICT BLACKLIST CHECK using JpaRepository
-                Optional<Token> tokenInDb = tokenRepository.findByAccessToken(jwt);
+                // STRICT BLACKLIST CHECK (cached in front of TokenRepository)
+                Optional<TokenState> tokenInDb = revocationTimer.record(
+                        () -> tokenStateCache.lookup(jwt, decoded.getExpiresAtAsInstant()));
                 if (tokenInDb.isPresent()) {
-                    Token token = tokenInDb.get();
-                    boolean isBlacklisted = token.isBlacklisted();
-                    System.out.println("Token found in DB - ID: " + token.getId() + ", Blacklisted: " + isBlacklisted);
-
-                    if (isBlacklisted) {
-                        System.out.println("❌ ACCESS DENIED: Token is blacklisted!");
+                    TokenState token = tokenInDb.get();
+                    if (token.blacklisted()) {
+                        log.debug("Access denied for {}: token {} is blacklisted", username, token.id());
+                        revoked.increment();
                         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                         response.getWriter().write("Token has been revoked");
                         return;
                     }
                 } else {
-                    System.out.println("❌ ACCESS DENIED: Token not found in database!");
+                    log.debug("Access denied for {}: token not found", username);
+                    rejected.increment();
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                     response.getWriter().write("Invalid token");
                     return;
                 }
 
-                if (isTokenValid) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
+                // Logout-everywhere / disabled user: one cached epoch per user instead of a row per token
+                if (!revocationTimer.record(() -> isEpochCurrent(decoded, tokenInDb.get()))) {
+                    log.debug("Access denied for {}: token issued before the user's tokens were revoked", username);
+                    revoked.increment();
+                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                    response.getWriter().write("Token has been revoked");
+                    return;
+                }
+
+                UsernamePasswordAuthenticationToken authToken = claimsOnlyAuth
+                        ? authenticateFromClaims(decoded, username, tokenInDb.get())
+                        : userLoadTimer.record(() -> authenticateFromUserDetails(jwt, username));
+
+                if (authToken != null) {
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    System.out.println("✅ ACCESS GRANTED for user: " + username);
+                    granted.increment();
                 } else {
-                    System.out.println("❌ ACCESS DENIED: Token JWT invalid");
+                    log.debug("Access denied for {}: user disabled or token does not match", username);
+                    rejected.increment();
                     response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                     response.getWriter().write("Invalid token");
                     return;
@@ -112,12 +151,62 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             filterChain.doFilter(request, response);
 
         } catch (Exception e) {
-            System.out.println("❌ JWT Filter Exception: " + e.getMessage());
+            log.debug("Access denied for {}: {}", requestURI, e.getMessage());
+            rejected.increment();
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("Invalid token: " + e.getMessage());
         }
     }
 
+    private UsernamePasswordAuthenticationToken authenticateFromUserDetails(String jwt, String username) {
+        UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        if (!userDetails.isEnabled()) {
+            return null;
+        }
+
+        // Check token validity
+        if (!jwtService.isTokenValid(jwt, userDetails)) {
+            return null;
+        }
+        return new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+    }
+
+    // The user id comes from the issued row rather than the claim, so tokens without a uid claim are covered too
+    private boolean isEpochCurrent(DecodedJWT jwt, TokenState token) {
+        return tokenEpochCache.currentEpoch(token.userId())
+                .map(current -> jwtService.extractTokenEpoch(jwt) >= current)
+                .orElse(false);
+    }
+
+    // Stateless mode: the verified token plus its (cached) DB state and epoch are enough, no user load.
+    // Disabling a user goes through UserService.disableUser, role changes through revokeAllTokens.
+    private UsernamePasswordAuthenticationToken authenticateFromClaims(DecodedJWT jwt, String username, TokenState token) {
+        String userId = jwtService.extractUserId(jwt);
+        if (userId != null && !userId.equals(token.userId())) {
+            return null;
+        }
+
+        List<SimpleGrantedAuthority> authorities = jwtService.extractRoles(jwt).stream()
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        JwtPrincipal principal = new JwtPrincipal(token.userId(), username, authorities);
+        return new UsernamePasswordAuthenticationToken(principal, null, authorities);
+    }
+
+    private static Timer stageTimer(MeterRegistry registry, String stage) {
+        return Timer.builder("auth.filter.stage")
+                .description("Time spent in each JWT filter stage")
+                .tag("stage", stage)
+                .register(registry);
+    }
+
+    private static Counter resultCounter(MeterRegistry registry, String result) {
+        return Counter.builder("auth.filter.result")
+                .description("JWT filter outcomes for protected endpoints")
+                .tag("result", result)
+                .register(registry);
+    }
+
     private boolean isPublicEndpoint(String requestURI) {
         return requestURI.equals("/") ||
                 requestURI.startsWith("/swagger-ui") ||
@@ -127,6 +216,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 requestURI.startsWith("/configuration") ||
                 requestURI.equals("/api/auth/register") ||
                 requestURI.equals("/api/auth/login") ||
-                requestURI.equals("/api/auth/token");
+                requestURI.equals("/api/auth/token") ||
+                requestURI.equals("/.well-known/jwks.json") ||
+                requestURI.startsWith("/actuator/health");
     }
 }
\ No newline at end of file
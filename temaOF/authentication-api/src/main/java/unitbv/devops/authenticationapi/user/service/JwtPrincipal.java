@@ -0,0 +1,12 @@
+package unitbv.devops.authenticationapi.user.service;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+
+// Principal built from a verified access token when jwt.claims-only-auth is enabled
+public record JwtPrincipal(
+        String userId,
+        String username,
+        Collection<? extends GrantedAuthority> authorities
+) {}
@@ -1,74 +1,199 @@
 package unitbv.devops.authenticationapi.user.service;
 
 import com.auth0.jwt.JWT;
-import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.JWTCreator;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import unitbv.devops.authenticationapi.config.JwtProperties;
 import unitbv.devops.authenticationapi.user.entity.User;
 
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 public class JwtService {
 
-    private final Algorithm hmacAlgorithm;
-    private final JWTVerifier jwtVerifier;
+    private static final Logger log = LoggerFactory.getLogger(JwtService.class);
+
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLES_CLAIM = "roles";
+    public static final String TOKEN_EPOCH_CLAIM = "epoch";
+    // 256 bits, 43 characters in base64url
+    private static final int OPAQUE_TOKEN_BYTES = 32;
+
+    private final JwtSigningKeys signingKeys;
     private final long accessTokenExpiration;
     private final long refreshTokenExpiration;
+    private final boolean opaqueRefreshTokens;
+    private final SecureRandom secureRandom = new SecureRandom();
+    // Decoded + verified tokens keyed by their signature segment, each kept only until its exp
+    private final Cache<String, DecodedJWT> verifiedTokens;
 
     public JwtService(JwtProperties jwtProperties) {
-        String jwtSecret = jwtProperties.getSecret();
         this.accessTokenExpiration = jwtProperties.getAccessTokenExpirationMs();
         this.refreshTokenExpiration = jwtProperties.getRefreshTokenExpirationMs();
+        this.opaqueRefreshTokens = jwtProperties.isOpaqueRefreshTokens();
 
-        this.hmacAlgorithm = Algorithm.HMAC256(jwtSecret);
-        this.jwtVerifier = JWT.require(hmacAlgorithm).build();
+        this.signingKeys = JwtSigningKeys.from(jwtProperties);
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(jwtProperties.getVerifiedCacheSize())
+                .expireAfter(Expiry.creating((String signature, DecodedJWT jwt) -> timeToExpiry(jwt)))
+                .build();
     }
 
     public String generateAccessToken(User user) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + accessTokenExpiration);
 
-        return JWT.create()
+        return newToken()
                 .withSubject(user.getUsername())
                 .withIssuedAt(now)
                 .withExpiresAt(expiryDate)
-                .withClaim("roles", user.getRoles().stream()
+                // iat has second precision; without a jti two tokens for the same user in one second are identical
+                .withJWTId(UUID.randomUUID().toString())
+                .withClaim(USER_ID_CLAIM, user.getId())
+                .withClaim(TOKEN_EPOCH_CLAIM, user.getTokenEpoch())
+                .withClaim(ROLES_CLAIM, user.getRoles().stream()
                         .map(Enum::name)
                         .collect(Collectors.toList()))
-                .sign(hmacAlgorithm);
+                .sign(signingKeys.signingAlgorithm());
     }
 
     public String generateRefreshToken(User user) {
+        if (opaqueRefreshTokens) {
+            return newOpaqueToken();
+        }
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + refreshTokenExpiration);
 
-        return JWT.create()
+        return newToken()
                 .withSubject(user.getUsername())
                 .withIssuedAt(now)
                 .withExpiresAt(expiryDate)
-                .sign(hmacAlgorithm);
+                .withJWTId(UUID.randomUUID().toString())
+                .sign(signingKeys.signingAlgorithm());
     }
 
-    public String extractUsername(String token) {
+    // Opaque refresh tokens are only ever looked up by digest, so the raw value is not worth storing
+    public boolean storesRefreshToken() {
+        return !opaqueRefreshTokens;
+    }
+
+    // Refresh tokens issued before this are expired. Checked on the stored created_at rather than an
+    // exp claim, so it holds for opaque tokens as well.
+    public Instant refreshTokensIssuedAfter() {
+        return Instant.now().minusMillis(refreshTokenExpiration);
+    }
+
+    // Verifies the token once; repeat calls with the same token are a cache lookup
+    public DecodedJWT verify(String token) {
+        String signature = token.substring(token.lastIndexOf('.') + 1);
+        DecodedJWT cached = verifiedTokens.getIfPresent(signature);
+        // The signature alone is not enough: header and payload must be the exact bytes that were verified
+        if (cached != null && cached.getToken().equals(token) && !isExpired(cached)) {
+            return cached;
+        }
+
         try {
-            return jwtVerifier.verify(token).getSubject();
+            // The kid header picks the verifier, so tokens signed by a rotated-out key still verify
+            DecodedJWT verified = signingKeys.verifierFor(JWT.decode(token).getKeyId()).verify(token);
+            verifiedTokens.put(signature, verified);
+            return verified;
         } catch (Exception e) {
-            System.out.println("Error extracting username from token: " + e.getMessage());
             throw new RuntimeException("Invalid token: " + e.getMessage());
         }
     }
 
+    // Public keys for /.well-known/jwks.json (empty with HS256)
+    public List<Map<String, Object>> jwks() {
+        return signingKeys.jwks();
+    }
+
+    public String extractUsername(String token) {
+        return verify(token).getSubject();
+    }
+
+    public String extractUserId(DecodedJWT jwt) {
+        return jwt.getClaim(USER_ID_CLAIM).asString();
+    }
+
+    // Decode only, no signature check: use it on tokens already matched against an issued row
+    public String readUserIdClaim(String token) {
+        try {
+            return JWT.decode(token).getClaim(USER_ID_CLAIM).asString();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Tokens issued before the claim existed count as epoch 0, so the first revocation covers them too
+    public long extractTokenEpoch(DecodedJWT jwt) {
+        Long epoch = jwt.getClaim(TOKEN_EPOCH_CLAIM).asLong();
+        return epoch == null ? 0 : epoch;
+    }
+
+    // Decode only, like readUserIdClaim
+    public long readTokenEpochClaim(String token) {
+        try {
+            return extractTokenEpoch(JWT.decode(token));
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    public List<String> extractRoles(DecodedJWT jwt) {
+        List<String> roles = jwt.getClaim(ROLES_CLAIM).asList(String.class);
+        return roles == null ? List.of() : roles;
+    }
+
     public boolean isTokenValid(String token, org.springframework.security.core.userdetails.UserDetails userDetails) {
         try {
-            final String username = extractUsername(token);
+            final String username = verify(token).getSubject();
             return username.equals(userDetails.getUsername());
         } catch (Exception e) {
-            System.out.println("Token validation error: " + e.getMessage());
+            log.debug("Token validation failed: {}", e.getMessage());
             return false;
         }
     }
-}
\ No newline at end of file
+
+    // Nothing to sign or verify: the token is only meaningful as the key of an issued row
+    private String newOpaqueToken() {
+        byte[] bytes = new byte[OPAQUE_TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private JWTCreator.Builder newToken() {
+        JWTCreator.Builder builder = JWT.create();
+        if (signingKeys.activeKid() != null) {
+            builder.withKeyId(signingKeys.activeKid());
+        }
+        return builder;
+    }
+
+    private static boolean isExpired(DecodedJWT jwt) {
+        Instant expiresAt = jwt.getExpiresAtAsInstant();
+        return expiresAt != null && !expiresAt.isAfter(Instant.now());
+    }
+
+    private static Duration timeToExpiry(DecodedJWT jwt) {
+        Instant expiresAt = jwt.getExpiresAtAsInstant();
+        if (expiresAt == null) {
+            return Duration.ZERO;
+        }
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+}
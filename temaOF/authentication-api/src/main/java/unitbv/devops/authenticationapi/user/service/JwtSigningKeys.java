@@ -0,0 +1,227 @@
+package unitbv.devops.authenticationapi.user.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import unitbv.devops.authenticationapi.config.JwtProperties;
+
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// The key material behind JwtService, built once from jwt.signing.*:
+// the algorithm new tokens are signed with, one verifier per kid, and the public JWK set.
+// HS256 has a single secret-based verifier and publishes nothing.
+public final class JwtSigningKeys {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtSigningKeys.class);
+
+    public enum SigningAlgorithm { HS256, RS256, ES256 }
+
+    private final SigningAlgorithm type;
+    private final String activeKid;
+    private final Algorithm signingAlgorithm;
+    private final JWTVerifier hmacVerifier;
+    private final Map<String, JWTVerifier> verifiersByKid;
+    private final List<Map<String, Object>> jwks;
+
+    private JwtSigningKeys(SigningAlgorithm type, String activeKid, Algorithm signingAlgorithm, JWTVerifier hmacVerifier,
+                           Map<String, JWTVerifier> verifiersByKid, List<Map<String, Object>> jwks) {
+        this.type = type;
+        this.activeKid = activeKid;
+        this.signingAlgorithm = signingAlgorithm;
+        this.hmacVerifier = hmacVerifier;
+        this.verifiersByKid = verifiersByKid;
+        this.jwks = jwks;
+    }
+
+    public static JwtSigningKeys from(JwtProperties properties) {
+        JwtProperties.Signing signing = properties.getSigning();
+        SigningAlgorithm type = parseAlgorithm(signing.getAlgorithm());
+        if (type == SigningAlgorithm.HS256) {
+            Algorithm hmac = Algorithm.HMAC256(properties.getSecret());
+            return new JwtSigningKeys(type, null, hmac, JWT.require(hmac).build(), Map.of(), List.of());
+        }
+
+        List<JwtProperties.Key> keys = signing.getKeys();
+        if (keys.isEmpty()) {
+            keys = List.of(ephemeralKey(type));
+        }
+
+        Map<String, JWTVerifier> verifiers = new HashMap<>();
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        Algorithm active = null;
+        String activeKid = signing.getActiveKid();
+        for (JwtProperties.Key key : keys) {
+            if (key.getKid() == null || key.getPublicKey() == null) {
+                throw new IllegalStateException("Every jwt.signing.keys entry needs a kid and a public-key");
+            }
+            PublicKey publicKey = publicKey(type, key.getPublicKey());
+            PrivateKey privateKey = key.getPrivateKey() == null ? null : privateKey(type, key.getPrivateKey());
+            Algorithm algorithm = algorithm(type, publicKey, privateKey);
+
+            verifiers.put(key.getKid(), JWT.require(algorithm).build());
+            jwks.add(jwk(type, key.getKid(), publicKey));
+
+            boolean isActive = activeKid == null ? active == null && privateKey != null : activeKid.equals(key.getKid());
+            if (isActive) {
+                if (privateKey == null) {
+                    throw new IllegalStateException("Active signing key " + key.getKid() + " has no private-key");
+                }
+                active = algorithm;
+                activeKid = key.getKid();
+            }
+        }
+        if (active == null) {
+            throw new IllegalStateException("No jwt.signing.keys entry can sign " + type + " tokens (active kid: " + activeKid + ")");
+        }
+        return new JwtSigningKeys(type, activeKid, active, null, Map.copyOf(verifiers), List.copyOf(jwks));
+    }
+
+    public SigningAlgorithm type() {
+        return type;
+    }
+
+    // null for HS256, whose tokens carry no kid
+    public String activeKid() {
+        return activeKid;
+    }
+
+    public Algorithm signingAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    public JWTVerifier verifierFor(String kid) {
+        if (hmacVerifier != null) {
+            return hmacVerifier;
+        }
+        JWTVerifier verifier = kid == null ? null : verifiersByKid.get(kid);
+        if (verifier == null) {
+            throw new JWTVerificationException("Unknown signing key id: " + kid);
+        }
+        return verifier;
+    }
+
+    public List<Map<String, Object>> jwks() {
+        return jwks;
+    }
+
+    private static SigningAlgorithm parseAlgorithm(String name) {
+        try {
+            return SigningAlgorithm.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Unsupported jwt.signing.algorithm " + name + ", use one of "
+                    + Arrays.toString(SigningAlgorithm.values()));
+        }
+    }
+
+    private static Algorithm algorithm(SigningAlgorithm type, PublicKey publicKey, PrivateKey privateKey) {
+        return switch (type) {
+            case RS256 -> Algorithm.RSA256((RSAPublicKey) publicKey, (RSAPrivateKey) privateKey);
+            case ES256 -> Algorithm.ECDSA256((ECPublicKey) publicKey, (ECPrivateKey) privateKey);
+            case HS256 -> throw new IllegalArgumentException("HS256 has no key pair");
+        };
+    }
+
+    private static String keyFactoryAlgorithm(SigningAlgorithm type) {
+        return type == SigningAlgorithm.ES256 ? "EC" : "RSA";
+    }
+
+    private static PublicKey publicKey(SigningAlgorithm type, String pem) {
+        try {
+            return KeyFactory.getInstance(keyFactoryAlgorithm(type)).generatePublic(new X509EncodedKeySpec(pemBytes(pem)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid " + type + " public key: " + e.getMessage(), e);
+        }
+    }
+
+    private static PrivateKey privateKey(SigningAlgorithm type, String pem) {
+        try {
+            return KeyFactory.getInstance(keyFactoryAlgorithm(type)).generatePrivate(new PKCS8EncodedKeySpec(pemBytes(pem)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid " + type + " private key: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] pemBytes(String pem) {
+        String base64 = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    // Development fallback: a fresh key pair per start, so tokens do not survive a restart
+    private static JwtProperties.Key ephemeralKey(SigningAlgorithm type) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance(keyFactoryAlgorithm(type));
+            if (type == SigningAlgorithm.ES256) {
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+            } else {
+                generator.initialize(2048);
+            }
+            KeyPair pair = generator.generateKeyPair();
+
+            JwtProperties.Key key = new JwtProperties.Key();
+            key.setKid("ephemeral-" + UUID.randomUUID());
+            key.setPublicKey(Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()));
+            key.setPrivateKey(Base64.getEncoder().encodeToString(pair.getPrivate().getEncoded()));
+            log.warn("No jwt.signing.keys configured, signing {} tokens with ephemeral key {}", type, key.getKid());
+            return key;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot generate a " + type + " key pair", e);
+        }
+    }
+
+    // RFC 7517 / 7518 public JWK
+    private static Map<String, Object> jwk(SigningAlgorithm type, String kid, PublicKey publicKey) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", type.name());
+        if (publicKey instanceof RSAPublicKey rsa) {
+            jwk.put("kty", "RSA");
+            jwk.put("n", base64Url(rsa.getModulus(), 0));
+            jwk.put("e", base64Url(rsa.getPublicExponent(), 0));
+        } else if (publicKey instanceof ECPublicKey ec) {
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", base64Url(ec.getW().getAffineX(), 32));
+            jwk.put("y", base64Url(ec.getW().getAffineY(), 32));
+        }
+        return jwk;
+    }
+
+    // Unsigned big-endian bytes, left-padded to length when length > 0
+    private static String base64Url(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (length > bytes.length) {
+            byte[] padded = new byte[length];
+            System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+            bytes = padded;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,155 @@
+package unitbv.devops.authenticationapi.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import unitbv.devops.authenticationapi.config.LoginThrottleProperties;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token buckets for /login, one per client IP and one per username/email, checked before any
+// query or BCrypt work. Every attempt costs an IP token and a username token; a successful login
+// gets its username token back, so only failures count against a username. The username token is
+// taken up front, so attempts running in parallel from many IPs cannot all pass one check.
+// The tables are size-bounded Caffeine caches and an entry idle long enough to be full again is
+// dropped, so memory stays flat however many distinct keys an attacker sends.
+@Component
+public class LoginRateLimiter {
+
+    private final boolean enabled;
+    private final Limit ipLimit;
+    private final Limit usernameLimit;
+    private final Cache<String, Bucket> ipBuckets;
+    private final Cache<String, Bucket> usernameBuckets;
+    private final LongSupplier nanoClock;
+
+    private final Counter ipRejectedCounter;
+    private final Counter usernameRejectedCounter;
+
+    @Autowired
+    public LoginRateLimiter(LoginThrottleProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    LoginRateLimiter(LoginThrottleProperties properties, MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.enabled = properties.isEnabled();
+        this.ipLimit = Limit.of(properties.getIpCapacity(), properties.getIpRefillMs());
+        this.usernameLimit = Limit.of(properties.getUsernameCapacity(), properties.getUsernameRefillMs());
+        this.ipBuckets = buckets(properties.getMaxKeys(), ipLimit);
+        this.usernameBuckets = buckets(properties.getMaxKeys(), usernameLimit);
+
+        this.ipRejectedCounter = Counter.builder("auth.login.throttled")
+                .tag("key", "ip")
+                .description("Login attempts refused because the client IP ran out of attempts")
+                .register(meterRegistry);
+        this.usernameRejectedCounter = Counter.builder("auth.login.throttled")
+                .tag("key", "username")
+                .description("Login attempts refused because the username had too many recent failures")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.throttle.keys", ipBuckets, Cache::estimatedSize)
+                .tag("key", "ip")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.throttle.keys", usernameBuckets, Cache::estimatedSize)
+                .tag("key", "username")
+                .register(meterRegistry);
+    }
+
+    // Throws LoginThrottledException when the attempt must be refused
+    public void checkLogin(String clientIp, String usernameOrEmail) {
+        if (!enabled) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+
+        long ipWait = ipBuckets.get(clientIp == null ? "" : clientIp, key -> new Bucket(now)).tryTake(now, ipLimit);
+        if (ipWait > 0) {
+            ipRejectedCounter.increment();
+            throw new LoginThrottledException(toRetryAfterSeconds(ipWait));
+        }
+
+        // Reserved now, handed back by recordSuccess
+        long usernameWait = usernameBuckets.get(usernameKey(usernameOrEmail), key -> new Bucket(now))
+                .tryTake(now, usernameLimit);
+        if (usernameWait > 0) {
+            usernameRejectedCounter.increment();
+            throw new LoginThrottledException(toRetryAfterSeconds(usernameWait));
+        }
+    }
+
+    // Refunds the username token reserved by checkLogin
+    public void recordSuccess(String usernameOrEmail) {
+        if (!enabled) {
+            return;
+        }
+        Bucket bucket = usernameBuckets.getIfPresent(usernameKey(usernameOrEmail));
+        if (bucket != null) {
+            bucket.refund(usernameLimit);
+        }
+    }
+
+    // "Alice" and "alice " share a bucket, so case or padding does not buy extra guesses
+    private static String usernameKey(String usernameOrEmail) {
+        return usernameOrEmail == null ? "" : usernameOrEmail.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    // After capacity * refill of idleness a bucket is full again, the same as a new one
+    private static Cache<String, Bucket> buckets(long maxKeys, Limit limit) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(limit.tolerance() + limit.interval()))
+                .build();
+    }
+
+    // interval: nanos to refill one token; tolerance: how far ahead of now the bucket may be booked
+    private record Limit(long interval, long tolerance) {
+        static Limit of(int capacity, long refillMs) {
+            long interval = TimeUnit.MILLISECONDS.toNanos(Math.max(1, refillMs));
+            return new Limit(interval, (Math.max(1, capacity) - 1) * interval);
+        }
+    }
+
+    // A token bucket kept as one number (GCRA): the time at which it would be full again.
+    // Taking a token moves it one interval forward; the bucket is empty once it is more than
+    // tolerance ahead of now. A single CAS per attempt, no lock and no refill timer.
+    private static final class Bucket {
+
+        private final AtomicLong fullAt;
+
+        Bucket(long now) {
+            this.fullAt = new AtomicLong(now);
+        }
+
+        // 0 when a token was taken, otherwise the nanos until one is available
+        long tryTake(long now, Limit limit) {
+            while (true) {
+                long current = fullAt.get();
+                long start = Math.max(current, now);
+                long wait = start - now - limit.tolerance();
+                if (wait > 0) {
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, start + limit.interval())) {
+                    return 0;
+                }
+            }
+        }
+
+        // A fullAt in the past reads as a full bucket, so refunding more than was taken is harmless
+        void refund(Limit limit) {
+            fullAt.addAndGet(-limit.interval());
+        }
+    }
+}
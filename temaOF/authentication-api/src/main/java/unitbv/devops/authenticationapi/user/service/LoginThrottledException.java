@@ -0,0 +1,16 @@
+package unitbv.devops.authenticationapi.user.service;
+
+// Thrown when a client IP or a username has no login attempts left; mapped to 429 + Retry-After
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(long retryAfterSeconds) {
+        super("Too many login attempts");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
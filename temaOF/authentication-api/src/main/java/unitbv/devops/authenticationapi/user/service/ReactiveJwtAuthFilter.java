@@ -0,0 +1,173 @@
+package unitbv.devops.authenticationapi.user.service;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import unitbv.devops.authenticationapi.config.JwtProperties;
+import unitbv.devops.authenticationapi.token.ReactiveTokenEpochCache;
+import unitbv.devops.authenticationapi.token.ReactiveTokenStateCache;
+import unitbv.devops.authenticationapi.token.TokenState;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// JwtAuthFilter as a WebFilter for the "reactive" profile: same checks, same auth.filter.result meters,
+// but the revocation lookup and the user load are R2DBC calls that never block the event loop
+@Component
+@Profile("reactive")
+public class ReactiveJwtAuthFilter implements WebFilter {
+
+    private final JwtService jwtService;
+    private final ReactiveUserDetailsService userDetailsService;
+    private final ReactiveTokenStateCache tokenStateCache;
+    private final ReactiveTokenEpochCache tokenEpochCache;
+    private final boolean claimsOnlyAuth;
+
+    private final Counter granted;
+    private final Counter missingHeader;
+    private final Counter revoked;
+    private final Counter rejected;
+
+    public ReactiveJwtAuthFilter(JwtService jwtService,
+                                 ReactiveUserDetailsService userDetailsService,
+                                 ReactiveTokenStateCache tokenStateCache,
+                                 ReactiveTokenEpochCache tokenEpochCache,
+                                 JwtProperties jwtProperties,
+                                 MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.tokenStateCache = tokenStateCache;
+        this.tokenEpochCache = tokenEpochCache;
+        this.claimsOnlyAuth = jwtProperties.isClaimsOnlyAuth();
+
+        this.granted = resultCounter(meterRegistry, "granted");
+        this.missingHeader = resultCounter(meterRegistry, "missing_header");
+        this.revoked = resultCounter(meterRegistry, "revoked");
+        this.rejected = resultCounter(meterRegistry, "rejected");
+    }
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        if (isPublicEndpoint(exchange.getRequest().getPath().value())) {
+            return chain.filter(exchange);
+        }
+
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            missingHeader.increment();
+            return unauthorized(exchange, "Missing Authorization header");
+        }
+
+        String jwt = authHeader.substring(7).replaceAll("^\"|\"$", "");
+        DecodedJWT decoded;
+        try {
+            decoded = jwtService.verify(jwt);
+        } catch (Exception e) {
+            rejected.increment();
+            return unauthorized(exchange, "Invalid token: " + e.getMessage());
+        }
+        String username = decoded.getSubject();
+        if (username == null) {
+            return chain.filter(exchange);
+        }
+
+        return authenticate(jwt, decoded, username)
+                .flatMap(authentication -> {
+                    granted.increment();
+                    return chain.filter(exchange)
+                            .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+                })
+                // Only rejections raised by authenticate; errors from further down the chain pass through
+                .onErrorResume(TokenRejectedException.class, e -> unauthorized(exchange, e.getMessage()));
+    }
+
+    private Mono<Authentication> authenticate(String jwt, DecodedJWT decoded, String username) {
+        return tokenStateCache.lookup(jwt, decoded.getExpiresAtAsInstant())
+                .switchIfEmpty(Mono.defer(() -> reject(rejected, "Invalid token")))
+                .flatMap(token -> {
+                    if (token.blacklisted()) {
+                        return reject(revoked, "Token has been revoked");
+                    }
+                    // Logout-everywhere / disabled user, see JwtAuthFilter
+                    return tokenEpochCache.currentEpoch(token.userId())
+                            .filter(current -> jwtService.extractTokenEpoch(decoded) >= current)
+                            .switchIfEmpty(Mono.defer(() -> reject(revoked, "Token has been revoked")))
+                            .flatMap(current -> claimsOnlyAuth
+                                    ? Mono.justOrEmpty(authenticateFromClaims(decoded, username, token))
+                                    : authenticateFromUserDetails(jwt, username));
+                })
+                .switchIfEmpty(Mono.defer(() -> reject(rejected, "Invalid token")))
+                .onErrorResume(e -> !(e instanceof TokenRejectedException),
+                        e -> reject(rejected, "Invalid token: " + e.getMessage()));
+    }
+
+    private Mono<Authentication> authenticateFromUserDetails(String jwt, String username) {
+        return userDetailsService.findByUsername(username)
+                .filter(userDetails -> userDetails.isEnabled() && jwtService.isTokenValid(jwt, userDetails))
+                .<Authentication>map(userDetails -> new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+    }
+
+    // Stateless mode, see JwtAuthFilter
+    private Authentication authenticateFromClaims(DecodedJWT jwt, String username, TokenState token) {
+        String userId = jwtService.extractUserId(jwt);
+        if (userId != null && !userId.equals(token.userId())) {
+            return null;
+        }
+
+        List<SimpleGrantedAuthority> authorities = jwtService.extractRoles(jwt).stream()
+                .map(SimpleGrantedAuthority::new)
+                .toList();
+        JwtPrincipal principal = new JwtPrincipal(token.userId(), username, authorities);
+        return new UsernamePasswordAuthenticationToken(principal, null, authorities);
+    }
+
+    private static <T> Mono<T> reject(Counter counter, String message) {
+        counter.increment();
+        return Mono.error(new TokenRejectedException(message));
+    }
+
+    private static Mono<Void> unauthorized(ServerWebExchange exchange, String message) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        DataBuffer body = response.bufferFactory().wrap(message.getBytes(StandardCharsets.UTF_8));
+        return response.writeWith(Mono.just(body));
+    }
+
+    private static Counter resultCounter(MeterRegistry registry, String result) {
+        return Counter.builder("auth.filter.result")
+                .description("JWT filter outcomes for protected endpoints")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private boolean isPublicEndpoint(String path) {
+        return path.equals("/api/auth/register") ||
+                path.equals("/api/auth/login") ||
+                path.equals("/api/auth/token") ||
+                path.equals("/.well-known/jwks.json") ||
+                path.startsWith("/actuator/health");
+    }
+
+    private static final class TokenRejectedException extends RuntimeException {
+        TokenRejectedException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package unitbv.devops.authenticationapi.user.service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import unitbv.devops.authenticationapi.dto.auth.*;
+
+import java.util.List;
+
+// UserService for the "reactive" profile; an empty Mono means what Optional.empty() means there
+public interface ReactiveUserService {
+
+    Mono<AuthenticationResponse> register(RegisterRequest req);
+
+    Mono<AuthenticationResponse> login(LoginRequest req);
+
+    // Errors with IllegalArgumentException for a malformed cursor
+    Mono<UserPageResponse> getUsers(String cursor, int limit);
+
+    Flux<UserResponse> exportUsers();
+
+    Mono<AuthenticationResponse> refresh(TokenRefreshRequest req);
+
+    Mono<List<TokenIntrospection>> introspect(List<String> tokens);
+
+    // Emits false for an unknown user
+    Mono<Boolean> revokeAllTokens(String userId);
+
+    Mono<Boolean> disableUser(String userId);
+}
@@ -0,0 +1,100 @@
+package unitbv.devops.authenticationapi.user.service;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.springframework.stereotype.Component;
+import unitbv.devops.authenticationapi.dto.auth.TokenIntrospection;
+import unitbv.devops.authenticationapi.token.TokenDigest;
+import unitbv.devops.authenticationapi.token.TokenState;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// The stack-independent half of batch introspection. verifyAll checks every signature (in parallel,
+// it is pure CPU), the caller resolves the revocation state of the survivors in one query plus the
+// token epochs of their owners, and results() applies the same rules as the JWT filter in claims-only mode.
+@Component
+public class TokenIntrospector {
+
+    private final JwtService jwtService;
+
+    public TokenIntrospector(JwtService jwtService) {
+        this.jwtService = jwtService;
+    }
+
+    // Same order as tokens; jwt is null for a token that does not verify
+    public List<VerifiedToken> verifyAll(List<String> tokens) {
+        return tokens.parallelStream()
+                .map(token -> token == null ? "" : token.replaceAll("^\"|\"$", ""))
+                .map(token -> new VerifiedToken(verifyOrNull(token), TokenDigest.sha256Hex(token)))
+                .toList();
+    }
+
+    // Digest -> exp of every token that verified, the keys for the revocation lookup
+    public Map<String, Instant> expiryByHash(List<VerifiedToken> verified) {
+        Map<String, Instant> expiresAt = new LinkedHashMap<>();
+        for (VerifiedToken token : verified) {
+            if (token.jwt() != null) {
+                expiresAt.put(token.accessTokenHash(), token.jwt().getExpiresAtAsInstant());
+            }
+        }
+        return expiresAt;
+    }
+
+    // Owners of the issued rows found, the keys for the token epoch lookup
+    public Set<String> userIds(Map<String, TokenState> states) {
+        Set<String> userIds = new HashSet<>();
+        for (TokenState state : states.values()) {
+            userIds.add(state.userId());
+        }
+        return userIds;
+    }
+
+    public List<TokenIntrospection> results(List<VerifiedToken> verified,
+                                            Map<String, TokenState> states,
+                                            Map<String, Long> epochs) {
+        List<TokenIntrospection> results = new ArrayList<>(verified.size());
+        for (VerifiedToken token : verified) {
+            results.add(introspect(token, states.get(token.accessTokenHash()), epochs));
+        }
+        return results;
+    }
+
+    private TokenIntrospection introspect(VerifiedToken token, TokenState state, Map<String, Long> epochs) {
+        DecodedJWT jwt = token.jwt();
+        // Unknown to the tokens table (e.g. a refresh token) or revoked
+        if (jwt == null || state == null || state.blacklisted()) {
+            return TokenIntrospection.inactive();
+        }
+        // Revoked with the rest of the user's tokens, or the user is gone
+        Long epoch = epochs.get(state.userId());
+        if (epoch == null || jwtService.extractTokenEpoch(jwt) < epoch) {
+            return TokenIntrospection.inactive();
+        }
+        String userId = jwtService.extractUserId(jwt);
+        if (userId != null && !userId.equals(state.userId())) {
+            return TokenIntrospection.inactive();
+        }
+        Instant expiresAt = jwt.getExpiresAtAsInstant();
+        return new TokenIntrospection(
+                true,
+                jwt.getSubject(),
+                state.userId(),
+                jwtService.extractRoles(jwt),
+                expiresAt == null ? null : expiresAt.getEpochSecond());
+    }
+
+    private DecodedJWT verifyOrNull(String token) {
+        try {
+            return jwtService.verify(token);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public record VerifiedToken(DecodedJWT jwt, String accessTokenHash) {}
+}
@@ -4,6 +4,7 @@ import unitbv.devops.authenticationapi.dto.auth.*;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserService {
 
@@ -11,7 +12,18 @@ public interface UserService {
     Optional<AuthenticationResponse> register(RegisterRequest req);
     Optional<AuthenticationResponse> login(LoginRequest req);
 
-    // Metoda veche (Tema 5)
-    List<UserResponse> getAllUsers();
+    // Metoda veche (Tema 5), acum paginata (keyset pe id)
+    UserPageResponse getUsers(String cursor, int limit);
+    void exportUsers(Consumer<UserResponse> sink);
     Optional<AuthenticationResponse> refresh(TokenRefreshRequest req);
+
+    // One result per token, in order: signatures verified in parallel, revocation state in one query
+    List<TokenIntrospection> introspect(List<String> tokens);
+
+    // Must be called whenever a user's roles change (claims-only auth relies on it).
+    // One single-row update of the user's token epoch; false for an unknown user.
+    boolean revokeAllTokens(String userId);
+
+    // Disables the user and revokes their tokens in the same single-row update
+    boolean disableUser(String userId);
 }
\ No newline at end of file
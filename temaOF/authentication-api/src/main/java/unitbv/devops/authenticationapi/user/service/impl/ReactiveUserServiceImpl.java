@@ -0,0 +1,186 @@
+package unitbv.devops.authenticationapi.user.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import unitbv.devops.authenticationapi.dto.auth.*;
+import unitbv.devops.authenticationapi.token.ReactiveTokenEpochCache;
+import unitbv.devops.authenticationapi.token.ReactiveTokenRepository;
+import unitbv.devops.authenticationapi.token.ReactiveTokenStateCache;
+import unitbv.devops.authenticationapi.token.TokenDigest;
+import unitbv.devops.authenticationapi.user.entity.Role;
+import unitbv.devops.authenticationapi.user.entity.User;
+import unitbv.devops.authenticationapi.user.mapper.UserMapper;
+import unitbv.devops.authenticationapi.user.repository.ReactiveUserRepository;
+import unitbv.devops.authenticationapi.user.service.JwtService;
+import unitbv.devops.authenticationapi.user.service.PasswordHashingService;
+import unitbv.devops.authenticationapi.user.service.ReactiveUserService;
+import unitbv.devops.authenticationapi.user.service.TokenIntrospector;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+// Same flows as UserServiceImpl without blocking: BCrypt completes a future on the hashing pool
+// and every query is R2DBC, so a request never holds a thread while it waits
+@Service
+@Profile("reactive")
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveUserServiceImpl.class);
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final ReactiveUserRepository users;
+    private final PasswordHashingService passwordHashing;
+    private final JwtService jwtService;
+    private final ReactiveTokenRepository tokenRepository;
+    private final ReactiveTokenStateCache tokenStateCache;
+    private final ReactiveTokenEpochCache tokenEpochCache;
+    private final TransactionalOperator transactionalOperator;
+    private final TokenIntrospector tokenIntrospector;
+
+    public ReactiveUserServiceImpl(ReactiveUserRepository users,
+                                   PasswordHashingService passwordHashing,
+                                   JwtService jwtService,
+                                   ReactiveTokenRepository tokenRepository,
+                                   ReactiveTokenStateCache tokenStateCache,
+                                   ReactiveTokenEpochCache tokenEpochCache,
+                                   TransactionalOperator transactionalOperator,
+                                   TokenIntrospector tokenIntrospector) {
+        this.users = users;
+        this.passwordHashing = passwordHashing;
+        this.jwtService = jwtService;
+        this.tokenRepository = tokenRepository;
+        this.tokenStateCache = tokenStateCache;
+        this.tokenEpochCache = tokenEpochCache;
+        this.transactionalOperator = transactionalOperator;
+        this.tokenIntrospector = tokenIntrospector;
+    }
+
+    @Override
+    public Mono<AuthenticationResponse> register(RegisterRequest req) {
+        return Mono.fromFuture(() -> passwordHashing.encodeAsync(req.password()))
+                .map(passwordHash -> User.builder()
+                        .id(UUID.randomUUID().toString())
+                        .username(req.username())
+                        .email(req.email())
+                        .passwordHash(passwordHash)
+                        .roles(Set.of(Role.USER))
+                        .createdAt(Instant.now())
+                        .enabled(true)
+                        .build())
+                // No exists checks first: the unique constraints decide
+                .flatMap(user -> users.insert(user)
+                        .onErrorResume(DataIntegrityViolationException.class, e -> Mono.empty()))
+                .flatMap(this::issueTokens);
+    }
+
+    @Override
+    public Mono<AuthenticationResponse> login(LoginRequest req) {
+        return users.findByUsernameOrEmail(req.usernameOrEmail())
+                .filterWhen(user -> Mono.fromFuture(() -> passwordHashing.matchesAsync(req.password(), user.getPasswordHash())))
+                // After the hash, as in UserServiceImpl.login
+                .filter(User::isEnabled)
+                .flatMap(this::issueTokens);
+    }
+
+    @Override
+    public Mono<UserPageResponse> getUsers(String cursor, int limit) {
+        return Mono.defer(() -> {
+            int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+            String afterId = cursor == null || cursor.isBlank() ? null : UserCursor.decode(cursor);
+
+            // One extra row tells us whether there is a next page
+            return users.findPageAfter(afterId, pageSize + 1)
+                    .map(UserMapper::toResponse)
+                    .collectList()
+                    .map(page -> {
+                        boolean hasMore = page.size() > pageSize;
+                        var responses = hasMore ? page.subList(0, pageSize) : page;
+                        String nextCursor = hasMore ? UserCursor.encode(responses.get(responses.size() - 1).id()) : null;
+                        return new UserPageResponse(responses, nextCursor);
+                    });
+        });
+    }
+
+    @Override
+    public Flux<UserResponse> exportUsers() {
+        return users.findAll().map(UserMapper::toResponse);
+    }
+
+    @Override
+    public Mono<AuthenticationResponse> refresh(TokenRefreshRequest req) {
+        String accessToken = req.accessToken().replaceAll("^\"|\"$", "");
+        String refreshToken = req.refreshToken().replaceAll("^\"|\"$", "");
+        String refreshTokenHash = TokenDigest.sha256Hex(refreshToken);
+        String accessTokenHash = TokenDigest.sha256Hex(accessToken);
+
+        // Rotation and the new insert commit together or not at all
+        return transactionalOperator.execute(status ->
+                        // One conditional UPDATE: of two concurrent refreshes with the same pair only one gets a row
+                        tokenRepository.blacklistPairIfActive(refreshTokenHash, accessTokenHash,
+                                        jwtService.refreshTokensIssuedAfter())
+                                .filter(updated -> updated > 0)
+                                // The access token matched an issued row, so its uid claim can be read without a query
+                                .flatMap(updated -> Mono.justOrEmpty(jwtService.readUserIdClaim(accessToken))
+                                        .switchIfEmpty(tokenRepository.findUserIdByRefreshTokenHash(refreshTokenHash)))
+                                .flatMap(users::findById)
+                                .filter(User::isEnabled)
+                                // A pair issued before a logout-everywhere must not mint tokens under the new epoch
+                                .filter(user -> jwtService.readTokenEpochClaim(accessToken) >= user.getTokenEpoch())
+                                .flatMap(this::issueTokens)
+                                .switchIfEmpty(Mono.fromRunnable(status::setRollbackOnly)))
+                .next()
+                .doOnNext(rotated -> tokenStateCache.invalidateHash(accessTokenHash))
+                .onErrorResume(e -> {
+                    log.warn("Token refresh failed", e);
+                    return Mono.empty();
+                });
+    }
+
+    @Override
+    public Mono<List<TokenIntrospection>> introspect(List<String> tokens) {
+        // Signature checks are CPU work for a whole batch, so they run off the event loop
+        return Mono.fromCallable(() -> tokenIntrospector.verifyAll(tokens))
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(verified -> tokenStateCache.lookupAll(tokenIntrospector.expiryByHash(verified))
+                        .flatMap(states -> tokenEpochCache.currentEpochs(tokenIntrospector.userIds(states))
+                                .map(epochs -> tokenIntrospector.results(verified, states, epochs))));
+    }
+
+    @Override
+    public Mono<Boolean> revokeAllTokens(String userId) {
+        return bumpTokenEpoch(userId, false);
+    }
+
+    @Override
+    public Mono<Boolean> disableUser(String userId) {
+        return bumpTokenEpoch(userId, true);
+    }
+
+    // One row update revokes every token of the user, see UserServiceImpl
+    private Mono<Boolean> bumpTokenEpoch(String userId, boolean disable) {
+        return users.incrementTokenEpoch(userId, disable)
+                .doOnNext(found -> {
+                    tokenEpochCache.invalidate(userId);
+                    if (found) {
+                        log.debug("Revoked all tokens for user {}{}", userId, disable ? " (disabled)" : "");
+                    }
+                });
+    }
+
+    private Mono<AuthenticationResponse> issueTokens(User user) {
+        String accessToken = jwtService.generateAccessToken(user);
+        String refreshToken = jwtService.generateRefreshToken(user);
+        return tokenRepository.insert(user.getId(), accessToken, refreshToken, jwtService.storesRefreshToken(),
+                        Instant.now())
+                .thenReturn(new AuthenticationResponse(accessToken, refreshToken));
+    }
+}
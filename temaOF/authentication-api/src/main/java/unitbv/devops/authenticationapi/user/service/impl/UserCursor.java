@@ -0,0 +1,18 @@
+package unitbv.devops.authenticationapi.user.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// The cursor is opaque to clients so the sort key can change without breaking them
+final class UserCursor {
+    private UserCursor() {}
+
+    static String encode(String lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Throws IllegalArgumentException for a cursor that was not produced by encode
+    static String decode(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
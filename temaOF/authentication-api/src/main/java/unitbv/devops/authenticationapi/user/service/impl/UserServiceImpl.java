@@ -1,11 +1,25 @@
 package unitbv.devops.authenticationapi.user.service.impl;
 
-import org.springframework.security.crypto.password.PasswordEncoder;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import unitbv.devops.authenticationapi.config.ReadReplicaRouting;
 import unitbv.devops.authenticationapi.dto.auth.*;
 import unitbv.devops.authenticationapi.user.service.JwtService;
+import unitbv.devops.authenticationapi.user.service.PasswordHashingService;
+import unitbv.devops.authenticationapi.user.service.TokenIntrospector;
+import unitbv.devops.authenticationapi.user.service.TokenIntrospector.VerifiedToken;
 import unitbv.devops.authenticationapi.token.Token;
+import unitbv.devops.authenticationapi.token.TokenDigest;
+import unitbv.devops.authenticationapi.token.TokenEpochCache;
 import unitbv.devops.authenticationapi.token.TokenRepository;
+import unitbv.devops.authenticationapi.token.TokenState;
+import unitbv.devops.authenticationapi.token.TokenStateCache;
+import unitbv.devops.authenticationapi.token.TokenWriteBehind;
 import unitbv.devops.authenticationapi.user.entity.Role;
 import unitbv.devops.authenticationapi.user.entity.User;
 import unitbv.devops.authenticationapi.user.mapper.UserMapper;
@@ -14,45 +28,70 @@ import unitbv.devops.authenticationapi.user.service.UserService;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Service
+@Profile("!reactive")
 public class UserServiceImpl implements UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserServiceImpl.class);
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final UserRepository users;
-    private final PasswordEncoder encoder;
+    private final PasswordHashingService passwordHashing;
     private final JwtService jwtService;
     private final TokenRepository tokenRepository;
+    private final TokenStateCache tokenStateCache;
+    private final TokenEpochCache tokenEpochCache;
+    private final TokenWriteBehind tokenWriteBehind;
+    private final TransactionTemplate transactionTemplate;
+    private final TokenIntrospector tokenIntrospector;
+    private final ReadReplicaRouting readReplicaRouting;
 
     public UserServiceImpl(UserRepository users,
-                           PasswordEncoder encoder,
+                           PasswordHashingService passwordHashing,
                            JwtService jwtService,
-                           TokenRepository tokenRepository) {
+                           TokenRepository tokenRepository,
+                           TokenStateCache tokenStateCache,
+                           TokenEpochCache tokenEpochCache,
+                           TokenWriteBehind tokenWriteBehind,
+                           TransactionTemplate transactionTemplate,
+                           TokenIntrospector tokenIntrospector,
+                           ReadReplicaRouting readReplicaRouting) {
         this.users = users;
-        this.encoder = encoder;
+        this.passwordHashing = passwordHashing;
         this.jwtService = jwtService;
         this.tokenRepository = tokenRepository;
+        this.tokenStateCache = tokenStateCache;
+        this.tokenEpochCache = tokenEpochCache;
+        this.tokenWriteBehind = tokenWriteBehind;
+        this.transactionTemplate = transactionTemplate;
+        this.tokenIntrospector = tokenIntrospector;
+        this.readReplicaRouting = readReplicaRouting;
     }
 
     // --- Metoda REGISTER (Cu JWT) ---
     @Override
+    @Timed(value = "auth.register", description = "Register requests, including hashing and token issue")
     public Optional<AuthenticationResponse> register(RegisterRequest req) {
-        if (users.existsByUsername(req.username()) || users.existsByEmail(req.email())) {
-            return Optional.empty();
-        }
-
         User u = User.builder()
                 .id(java.util.UUID.randomUUID().toString())
                 .username(req.username())
                 .email(req.email())
-                .passwordHash(encoder.encode(req.password()))
+                .passwordHash(passwordHashing.encode(req.password()))
                 .roles(Set.of(Role.USER))
                 .createdAt(Instant.now())
                 .enabled(true)
                 .build();
-        u = users.save(u);
+        // No exists checks first: the unique constraints decide, in the same round-trip as the insert
+        try {
+            u = users.insert(u);
+        } catch (DataIntegrityViolationException e) {
+            return Optional.empty();
+        }
 
         String accessToken = jwtService.generateAccessToken(u);
         String refreshToken = jwtService.generateRefreshToken(u);
@@ -64,17 +103,18 @@ public class UserServiceImpl implements UserService {
 
     // --- Metoda LOGIN (Cu JWT) ---
     @Override
+    @Timed(value = "auth.login", description = "Login requests, including hashing and token issue")
     public Optional<AuthenticationResponse> login(LoginRequest req) {
-        Optional<User> found = users.findByUsername(req.usernameOrEmail());
-        if (found.isEmpty()) {
-            found = users.findByEmail(req.usernameOrEmail());
-        }
+        // Read from the replica; a user registered moments ago is found on the primary
+        Optional<User> found = readReplicaRouting.readYourWrites(
+                () -> users.findByUsernameOrEmail(req.usernameOrEmail()));
         if (found.isEmpty()) {
             return Optional.empty();
         }
 
         User u = found.get();
-        if (!encoder.matches(req.password(), u.getPasswordHash())) {
+        // Hash first either way, so a disabled account answers no faster than a wrong password
+        if (!passwordHashing.matches(req.password(), u.getPasswordHash()) || !u.isEnabled()) {
             return Optional.empty();
         }
 
@@ -86,116 +126,142 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public List<UserResponse> getAllUsers() {
-        System.out.println("=== SERVICE: getAllUsers() called ===");
+    public UserPageResponse getUsers(String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        String afterId = cursor == null || cursor.isBlank() ? null : UserCursor.decode(cursor);
+
+        // One extra row tells us whether there is a next page
+        List<User> page = users.findPageAfter(afterId, pageSize + 1);
+        boolean hasMore = page.size() > pageSize;
+        List<UserResponse> responses = page.stream()
+                .limit(pageSize)
+                .map(UserMapper::toResponse)
+                .toList();
+
+        String nextCursor = hasMore ? UserCursor.encode(responses.get(responses.size() - 1).id()) : null;
+        return new UserPageResponse(responses, nextCursor);
+    }
 
-        try {
-            // 1. Get all user entities
-            List<User> userEntities = users.findAll();
-            System.out.println("=== SERVICE: Found " + userEntities.size() + " users in database ===");
-
-            // 2. Map to responses
-            List<UserResponse> responses = userEntities.stream()
-                    .map(user -> {
-                        System.out.println("=== SERVICE: Mapping user: " + user.getUsername() + " ===");
-                        return UserMapper.toResponse(user);
-                    })
-                    .collect(Collectors.toList());
-
-            System.out.println("=== SERVICE: Returning " + responses.size() + " user responses ===");
-            return responses;
-        } catch (Exception e) {
-            System.out.println("=== SERVICE: ERROR in getAllUsers: " + e.getMessage() + " ===");
-            e.printStackTrace();
-            return List.of(); // Return empty list on error
-        }
+    @Override
+    public void exportUsers(Consumer<UserResponse> sink) {
+        users.forEachUser(user -> sink.accept(UserMapper.toResponse(user)));
     }
 
     // --- Metoda ajutătoare pentru a salva token-urile ---
     private void saveUserToken(User user, String accessToken, String refreshToken) {
-        try {
-            // Clean tokens before saving
-            String cleanAccessToken = accessToken.replaceAll("^\"|\"$", "");
-            String cleanRefreshToken = refreshToken.replaceAll("^\"|\"$", "");
-
-            Token token = Token.builder()
-                    .user(user)
-                    .accessToken(cleanAccessToken)
-                    .refreshToken(cleanRefreshToken)
-                    .blacklisted(false)
-                    .createdAt(Instant.now())
-                    .build();
-
-            Token savedToken = tokenRepository.save(token);
-            System.out.println("✅ Saved new token to DB - ID: " + savedToken.getId());
-        } catch (Exception e) {
-            System.out.println("❌ Error saving token: " + e.getMessage());
-            throw e;
+        saveUserToken(user, accessToken, refreshToken, true);
+    }
+
+    private void saveUserToken(User user, String accessToken, String refreshToken, boolean allowWriteBehind) {
+        // Clean tokens before saving
+        String cleanAccessToken = accessToken.replaceAll("^\"|\"$", "");
+        String cleanRefreshToken = refreshToken.replaceAll("^\"|\"$", "");
+
+        Token token = Token.builder()
+                .user(user)
+                .accessToken(cleanAccessToken)
+                .refreshToken(jwtService.storesRefreshToken() ? cleanRefreshToken : null)
+                .accessTokenHash(TokenDigest.sha256Hex(cleanAccessToken))
+                .refreshTokenHash(TokenDigest.sha256Hex(cleanRefreshToken))
+                .blacklisted(false)
+                .createdAt(Instant.now())
+                .build();
+
+        if (allowWriteBehind && tokenWriteBehind.isEnabled()) {
+            tokenWriteBehind.enqueue(token);
+            return;
         }
+        tokenRepository.save(token);
     }
 
 
     @Override
+    @Timed(value = "auth.refresh", description = "Refresh token rotations")
     public Optional<AuthenticationResponse> refresh(TokenRefreshRequest req) {
         try {
             // Clean tokens from quotes
             String accessToken = req.accessToken().replaceAll("^\"|\"$", "");
             String refreshToken = req.refreshToken().replaceAll("^\"|\"$", "");
 
-            System.out.println("=== TOKEN REFRESH STARTED ===");
-
-            // 1. Find token by refresh token using JpaRepository method
-            Optional<Token> refreshTokenOpt = tokenRepository.findByRefreshToken(refreshToken);
-            if (refreshTokenOpt.isEmpty()) {
-                System.out.println("❌ Refresh token not found in database");
-                return Optional.empty();
+            String refreshTokenHash = TokenDigest.sha256Hex(refreshToken);
+            String accessTokenHash = TokenDigest.sha256Hex(accessToken);
+            tokenWriteBehind.awaitPersisted(refreshTokenHash);
+
+            // Rotation and the new insert commit together or not at all
+            Optional<AuthenticationResponse> rotated = transactionTemplate.execute(status -> {
+                // 1. Blacklist the pair only if it exists, matches and is still active.
+                // One conditional UPDATE: of two concurrent refreshes with the same pair only one gets a row.
+                if (tokenRepository.blacklistPairIfActive(refreshTokenHash, accessTokenHash,
+                        jwtService.refreshTokensIssuedAfter()) == 0) {
+                    log.debug("Refresh refused: token pair not found, expired, mismatched or already rotated");
+                    return Optional.empty();
+                }
+
+                // 2. Verify user. The access token matched an issued row byte for byte, so its uid claim
+                // can be read without another query (older tokens without it fall back to one).
+                String userId = jwtService.readUserIdClaim(accessToken);
+                if (userId == null) {
+                    userId = tokenRepository.findUserIdByRefreshTokenHash(refreshTokenHash).orElse(null);
+                }
+                User user = userId == null ? null : users.findById(userId).orElse(null);
+                if (user == null || !user.isEnabled()) {
+                    log.debug("Refresh refused: user {} missing or disabled", userId);
+                    status.setRollbackOnly();
+                    return Optional.empty();
+                }
+                // A pair issued before a logout-everywhere must not mint tokens under the new epoch
+                if (jwtService.readTokenEpochClaim(accessToken) < user.getTokenEpoch()) {
+                    log.debug("Refresh refused: tokens were revoked for user {}", user.getId());
+                    status.setRollbackOnly();
+                    return Optional.empty();
+                }
+
+                // 3. Generate and save new tokens in the same transaction
+                String newAccessToken = jwtService.generateAccessToken(user);
+                String newRefreshToken = jwtService.generateRefreshToken(user);
+                saveUserToken(user, newAccessToken, newRefreshToken, false);
+
+                return Optional.of(new AuthenticationResponse(newAccessToken, newRefreshToken));
+            });
+
+            if (rotated != null && rotated.isPresent()) {
+                tokenStateCache.invalidateHash(accessTokenHash);
+                return rotated;
             }
+            return Optional.empty();
 
-            Token tokenEntity = refreshTokenOpt.get();
-            System.out.println("✅ Found token in DB - ID: " + tokenEntity.getId() + ", Blacklisted: " + tokenEntity.isBlacklisted());
-
-            // 2. Verify the access token matches
-            if (!tokenEntity.getAccessToken().equals(accessToken)) {
-                System.out.println("❌ Access token mismatch");
-                return Optional.empty();
-            }
-
-            // 3. Check if already blacklisted
-            if (tokenEntity.isBlacklisted()) {
-                System.out.println("❌ Token is already blacklisted");
-                return Optional.empty();
-            }
-
-            // 4. Verify user
-            User user = tokenEntity.getUser();
-            if (user == null || !user.isEnabled()) {
-                System.out.println("❌ User is null or disabled");
-                return Optional.empty();
-            }
-
-            System.out.println("✅ User valid: " + user.getUsername());
-
-            // 5. BLACKLIST THE OLD TOKEN using JpaRepository save
-            tokenEntity.setBlacklisted(true);
-            Token savedBlacklistedToken = tokenRepository.save(tokenEntity);
-            System.out.println("✅ Successfully blacklisted token ID: " + savedBlacklistedToken.getId());
-
-            // 6. Generate new tokens
-            String newAccessToken = jwtService.generateAccessToken(user);
-            String newRefreshToken = jwtService.generateRefreshToken(user);
+        } catch (Exception e) {
+            log.warn("Token refresh failed", e);
+            return Optional.empty();
+        }
+    }
 
-            System.out.println("✅ Generated new tokens");
+    @Override
+    @Timed(value = "auth.introspect", description = "Batch token introspection requests")
+    public List<TokenIntrospection> introspect(List<String> tokens) {
+        List<VerifiedToken> verified = tokenIntrospector.verifyAll(tokens);
+        Map<String, TokenState> states = tokenStateCache.lookupAll(tokenIntrospector.expiryByHash(verified));
+        Map<String, Long> epochs = tokenEpochCache.currentEpochs(tokenIntrospector.userIds(states));
+        return tokenIntrospector.results(verified, states, epochs);
+    }
 
-            // 7. Save new tokens using JpaRepository
-            saveUserToken(user, newAccessToken, newRefreshToken);
-            System.out.println("✅ Saved new tokens to database");
+    @Override
+    public boolean revokeAllTokens(String userId) {
+        return bumpTokenEpoch(userId, false);
+    }
 
-            return Optional.of(new AuthenticationResponse(newAccessToken, newRefreshToken));
+    @Override
+    public boolean disableUser(String userId) {
+        return bumpTokenEpoch(userId, true);
+    }
 
-        } catch (Exception e) {
-            System.out.println("❌ Error during token refresh: " + e.getMessage());
-            e.printStackTrace();
-            return Optional.empty();
+    // Every access token carries the epoch it was issued under, so one row update revokes them all
+    private boolean bumpTokenEpoch(String userId, boolean disable) {
+        boolean found = users.incrementTokenEpoch(userId, disable);
+        tokenEpochCache.invalidate(userId);
+        if (found) {
+            log.debug("Revoked all tokens for user {}{}", userId, disable ? " (disabled)" : "");
         }
+        return found;
     }
 }
\ No newline at end of file
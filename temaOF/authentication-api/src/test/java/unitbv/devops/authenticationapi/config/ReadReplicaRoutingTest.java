@@ -0,0 +1,88 @@
+package unitbv.devops.authenticationapi.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two in-memory H2 databases stand in for the primary and the replica; each one knows its own name,
+// so every query shows where it was routed. No replication: a row written to the primary stays
+// missing on the replica, which is exactly the lag read-your-writes has to cover.
+class ReadReplicaRoutingTest {
+
+    private JdbcTemplate jdbc;
+    private JdbcTemplate primaryJdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private ReadReplicaRouting routing;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        primaryJdbc = new JdbcTemplate(primary);
+
+        DataSource routed = ReadReplicaRoutingDataSource.create(primary, replica);
+        jdbc = new JdbcTemplate(routed);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routed);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        ReadReplicaProperties properties = new ReadReplicaProperties();
+        properties.setEnabled(true);
+        routing = new ReadReplicaRouting(properties);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertEquals("replica", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    void readWriteTransactionsAndPlainCallsGoToThePrimary() {
+        assertEquals("primary", readWrite.execute(status -> node()));
+        assertEquals("primary", node());
+    }
+
+    @Test
+    void onPrimaryOverridesReadOnly() {
+        assertEquals("primary", routing.onPrimary(() -> readOnly.execute(status -> node())));
+        assertEquals("replica", readOnly.execute(status -> node()));
+    }
+
+    @Test
+    void readYourWritesFindsRowsTheReplicaDoesNotHaveYet() {
+        primaryJdbc.update("insert into issued (id) values ('fresh')");
+
+        assertTrue(readOnly.execute(status -> issued("fresh")).isEmpty());
+        assertEquals(Optional.of("fresh"), routing.readYourWrites(() -> readOnly.execute(status -> issued("fresh"))));
+    }
+
+    private String node() {
+        return jdbc.queryForObject("select name from node", String.class);
+    }
+
+    private Optional<String> issued(String id) {
+        return jdbc.queryForList("select id from issued where id = ?", String.class, id).stream().findFirst();
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table node (name varchar(16))");
+        jdbc.update("insert into node (name) values (?)", name);
+        jdbc.execute("create table issued (id varchar(16))");
+        return dataSource;
+    }
+}
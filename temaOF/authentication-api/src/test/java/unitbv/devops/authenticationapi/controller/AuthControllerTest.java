@@ -0,0 +1,101 @@
+package unitbv.devops.authenticationapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import unitbv.devops.authenticationapi.dto.auth.AuthenticationResponse;
+import unitbv.devops.authenticationapi.dto.auth.LoginRequest;
+import unitbv.devops.authenticationapi.dto.auth.RegisterRequest;
+import unitbv.devops.authenticationapi.token.TokenEpochCache;
+import unitbv.devops.authenticationapi.user.entity.User;
+import unitbv.devops.authenticationapi.user.repository.UserRepository;
+import unitbv.devops.authenticationapi.user.service.UserService;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("local")
+class AuthControllerTest {
+
+    private static final String PASSWORD = "test-password";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private TokenEpochCache tokenEpochCache;
+
+    @Test
+    void disabledUserCannotLogInOrUseIssuedTokens() throws Exception {
+        String username = newUsername();
+        AuthenticationResponse issued = register(username);
+        login(username).andExpect(status().isOk());
+        listUsers(issued.accessToken()).andExpect(status().isOk());
+
+        String userId = users.findByUsername(username).orElseThrow().getId();
+        userService.disableUser(userId);
+
+        login(username).andExpect(status().isUnauthorized());
+        listUsers(issued.accessToken()).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void userDisabledWithoutARevocationIsRejectedByTheFilter() throws Exception {
+        String username = newUsername();
+        AuthenticationResponse issued = register(username);
+        listUsers(issued.accessToken()).andExpect(status().isOk());
+
+        // enabled cleared directly, e.g. by an admin script: the token epoch is unchanged
+        User user = users.findByUsername(username).orElseThrow();
+        user.setEnabled(false);
+        users.save(user);
+        tokenEpochCache.invalidate(user.getId());
+
+        listUsers(issued.accessToken()).andExpect(status().isUnauthorized());
+        login(username).andExpect(status().isUnauthorized());
+    }
+
+    private AuthenticationResponse register(String username) throws Exception {
+        String body = mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new RegisterRequest(username, username + "@example.com", PASSWORD))))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, AuthenticationResponse.class);
+    }
+
+    private ResultActions login(String username) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new LoginRequest(username, PASSWORD))));
+    }
+
+    private ResultActions listUsers(String accessToken) throws Exception {
+        return mockMvc.perform(get("/api/auth/users").header("Authorization", "Bearer " + accessToken));
+    }
+
+    private static String newUsername() {
+        return "u" + UUID.randomUUID().toString().substring(0, 12);
+    }
+}
@@ -0,0 +1,233 @@
+package unitbv.devops.authenticationapi.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.ActiveProfiles;
+import unitbv.devops.authenticationapi.dto.auth.AuthenticationResponse;
+import unitbv.devops.authenticationapi.dto.auth.LoginRequest;
+import unitbv.devops.authenticationapi.dto.auth.RegisterRequest;
+import unitbv.devops.authenticationapi.dto.auth.TokenRefreshRequest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Macro benchmark: many concurrent clients against the full app on the "local" profile, each replaying
+// a register/login/refresh/authenticated GET mix. Reports throughput and p50/p99/p999 per endpoint.
+//
+//   mvn -Ploadtest test [-Dloadtest.clients=32 -Dloadtest.duration-seconds=30 -Dloadtest.warmup-seconds=5]
+//
+// Platform vs virtual request threads under DB latency (authenticated GETs only, 20 ms per statement):
+//   mvn -Ploadtest test -Dloadtest.clients=400 -Dloadtest.db-latency-ms=20 -Dloadtest.register-percent=0 \
+//       -Dloadtest.login-percent=0 -Dloadtest.refresh-percent=0 -DDB_POOL_SIZE=400 \
+//       -Dspring.threads.virtual.enabled=false|true
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("local")
+@Import(DbLatencyConfiguration.class)
+class AuthenticationLoadTest {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final long BUSY_BACKOFF_MS = 100;
+
+    // Traffic mix in percent; whatever is left over is authenticated GETs
+    private final int registerPercent = Integer.getInteger("loadtest.register-percent", 5);
+    private final int loginPercent = Integer.getInteger("loadtest.login-percent", 10);
+    private final int refreshPercent = Integer.getInteger("loadtest.refresh-percent", 15);
+
+    private final int clients = Integer.getInteger("loadtest.clients", 32);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 30);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 5);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Environment environment;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final AtomicInteger userCounter = new AtomicInteger();
+    private volatile boolean measuring;
+    private volatile boolean stopped;
+
+    @Test
+    void mixedTraffic() throws Exception {
+        for (String endpoint : List.of("register", "login", "refresh", "users")) {
+            stats.put(endpoint, new EndpointStats());
+        }
+
+        ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor();
+        CountDownLatch registered = new CountDownLatch(clients);
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            running.add(pool.submit(() -> {
+                runClient(registered);
+                return null;
+            }));
+        }
+
+        // Every client has its own user before the clock starts (BCrypt makes this slow with many clients)
+        registered.await();
+        TimeUnit.SECONDS.sleep(warmupSeconds);
+        measuring = true;
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(durationSeconds);
+        measuring = false;
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        stopped = true;
+
+        for (Future<?> client : running) {
+            client.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        long measured = report(elapsedSeconds);
+
+        long unexpected = stats.values().stream().mapToLong(endpoint -> endpoint.unexpected.sum()).sum();
+        assertTrue(measured > 0, "no requests completed while measuring");
+        assertEquals(0, unexpected, "requests failed with an unexpected status");
+    }
+
+    private void runClient(CountDownLatch registered) throws Exception {
+        Session session = register();
+        while (session.tokens() == null) {
+            TimeUnit.MILLISECONDS.sleep(BUSY_BACKOFF_MS);
+            session = register();
+        }
+        registered.countDown();
+        registered.await();
+        while (!stopped) {
+            int roll = ThreadLocalRandom.current().nextInt(100);
+            if (roll < registerPercent) {
+                register();
+            } else if (roll < registerPercent + loginPercent) {
+                session = login(session);
+            } else if (roll < registerPercent + loginPercent + refreshPercent) {
+                session = refresh(session);
+            } else {
+                send("users", HttpRequest.newBuilder(uri("/api/auth/users?limit=20"))
+                        .header("Authorization", "Bearer " + session.tokens().accessToken())
+                        .GET(), 200);
+            }
+        }
+    }
+
+    private Session register() throws Exception {
+        String username = "lt" + userCounter.incrementAndGet();
+        HttpResponse<String> response = send("register", post("/api/auth/register",
+                new RegisterRequest(username, username + "@example.com", PASSWORD)), 201);
+        return new Session(username, response.statusCode() == 201 ? tokens(response) : null);
+    }
+
+    private Session login(Session session) throws Exception {
+        HttpResponse<String> response = send("login", post("/api/auth/login",
+                new LoginRequest(session.username(), PASSWORD)), 200);
+        return response.statusCode() == 200 ? new Session(session.username(), tokens(response)) : session;
+    }
+
+    private Session refresh(Session session) throws Exception {
+        HttpResponse<String> response = send("refresh", post("/api/auth/token",
+                new TokenRefreshRequest(session.tokens().accessToken(), session.tokens().refreshToken())), 200);
+        return response.statusCode() == 200 ? new Session(session.username(), tokens(response)) : session;
+    }
+
+    // 503 from the password hashing pool is back-pressure, not a failure; anything else unexpected is
+    private HttpResponse<String> send(String endpoint, HttpRequest.Builder request, int expectedStatus) throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> response = http.send(request.timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+
+        if (measuring) {
+            EndpointStats endpointStats = stats.get(endpoint);
+            endpointStats.histogram.recordValue(micros);
+            if (response.statusCode() == 503) {
+                endpointStats.busy.increment();
+            } else if (response.statusCode() != expectedStatus) {
+                endpointStats.unexpected.increment();
+            }
+        }
+        if (response.statusCode() != expectedStatus && response.statusCode() != 503) {
+            throw new IllegalStateException(endpoint + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response;
+    }
+
+    private HttpRequest.Builder post(String path, Object body) throws Exception {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private AuthenticationResponse tokens(HttpResponse<String> response) throws Exception {
+        return objectMapper.readValue(response.body(), AuthenticationResponse.class);
+    }
+
+    private long report(double elapsedSeconds) {
+        long total = 0;
+        System.out.printf("%n=== Load test: %d clients, %.1f s measured, virtual threads: %s, db latency: %d ms ===%n",
+                clients, elapsedSeconds, environment.getProperty("spring.threads.virtual.enabled"),
+                Integer.getInteger(DbLatencyConfiguration.LATENCY_PROPERTY, 0));
+        System.out.printf("%-10s %9s %9s %9s %9s %9s %9s %6s%n",
+                "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "503s");
+        for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+            Histogram histogram = entry.getValue().histogram.getIntervalHistogram();
+            total += histogram.getTotalCount();
+            System.out.printf("%-10s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %6d%n",
+                    entry.getKey(),
+                    histogram.getTotalCount(),
+                    histogram.getTotalCount() / elapsedSeconds,
+                    histogram.getValueAtPercentile(50) / 1000.0,
+                    histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0,
+                    histogram.getMaxValue() / 1000.0,
+                    entry.getValue().busy.sum());
+        }
+        return total;
+    }
+
+    private record Session(String username, AuthenticationResponse tokens) {}
+
+    private static final class EndpointStats {
+        // Microseconds, 3 significant digits
+        private final Recorder histogram = new Recorder(3);
+        private final LongAdder busy = new LongAdder();
+        private final LongAdder unexpected = new LongAdder();
+    }
+}
@@ -0,0 +1,90 @@
+package unitbv.devops.authenticationapi.loadtest;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+// Makes the in-memory database behave like one across a network: every statement execution
+// sleeps for -Dloadtest.db-latency-ms while holding its connection. Off (no wrapping) by default.
+@TestConfiguration(proxyBeanMethods = false)
+class DbLatencyConfiguration {
+
+    static final String LATENCY_PROPERTY = "loadtest.db-latency-ms";
+
+    @Bean
+    static BeanPostProcessor dbLatencyPostProcessor() {
+        long latencyMs = Integer.getInteger(LATENCY_PROPERTY, 0);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (latencyMs <= 0 || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                    Object result = invoke(method, target, args);
+                    return result instanceof Connection connection ? delayingConnection(connection, latencyMs) : result;
+                });
+            }
+        };
+    }
+
+    private static Connection delayingConnection(Connection connection, long latencyMs) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(method, target, args);
+            if (result instanceof Statement statement) {
+                return delayingStatement(statement, latencyMs);
+            }
+            return result;
+        });
+    }
+
+    private static Statement delayingStatement(Statement statement, long latencyMs) {
+        // Keep the JDBC interface (PreparedStatement, CallableStatement) the caller asked for
+        return (Statement) Proxy.newProxyInstance(DbLatencyConfiguration.class.getClassLoader(), jdbcInterfaces(statement),
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        TimeUnit.MILLISECONDS.sleep(latencyMs);
+                    }
+                    return invoke(method, statement, args);
+                });
+    }
+
+    private static Class<?>[] jdbcInterfaces(Statement statement) {
+        if (statement instanceof CallableStatement) {
+            return new Class<?>[]{CallableStatement.class};
+        }
+        if (statement instanceof PreparedStatement) {
+            return new Class<?>[]{PreparedStatement.class};
+        }
+        return new Class<?>[]{Statement.class};
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, TargetHandler handler) {
+        return (T) Proxy.newProxyInstance(DbLatencyConfiguration.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(target, method, args));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface TargetHandler {
+        Object invoke(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
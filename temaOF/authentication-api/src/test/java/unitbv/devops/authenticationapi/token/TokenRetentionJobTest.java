@@ -0,0 +1,112 @@
+package unitbv.devops.authenticationapi.token;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import unitbv.devops.authenticationapi.config.JwtProperties;
+import unitbv.devops.authenticationapi.config.TokenRetentionProperties;
+import unitbv.devops.authenticationapi.user.entity.Role;
+import unitbv.devops.authenticationapi.user.entity.User;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class TokenRetentionJobTest {
+
+    private static final Duration ACCESS_LIFETIME = Duration.ofHours(1);
+    private static final Duration REFRESH_LIFETIME = Duration.ofDays(7);
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private TokenRetentionProperties properties;
+    private TokenRetentionJob job;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties jwtProperties = new JwtProperties();
+        jwtProperties.setAccessTokenExpirationMs(ACCESS_LIFETIME.toMillis());
+        jwtProperties.setRefreshTokenExpirationMs(REFRESH_LIFETIME.toMillis());
+        properties = new TokenRetentionProperties();
+        // Batches smaller than the row count, so both queries have to page
+        properties.setBatchSize(2);
+        properties.setPauseMs(0);
+        job = new TokenRetentionJob(tokenRepository, properties, jwtProperties);
+
+        user = User.builder()
+                .id("user-1")
+                .username("alice")
+                .email("alice@example.com")
+                .passwordHash("hash")
+                .roles(Set.of(Role.USER))
+                .createdAt(Instant.now())
+                .enabled(true)
+                .build();
+        entityManager.persist(user);
+    }
+
+    @Test
+    void purgesExpiredAndRotatedRowsButKeepsBlacklistedTokensInTheirGracePeriod() {
+        Instant now = Instant.now();
+        for (int i = 0; i < 3; i++) {
+            token("expired-" + i, false, now.minus(REFRESH_LIFETIME).minus(Duration.ofMinutes(i + 1)));
+            token("rotated-" + i, true, now.minus(ACCESS_LIFETIME).minus(Duration.ofMinutes(i + 1)));
+        }
+        // Blacklisted by a refresh, but its access token has not expired yet
+        Token grace = token("grace", true, now.minus(ACCESS_LIFETIME).plus(Duration.ofMinutes(10)));
+        // Old enough for the rotated range but never blacklisted: its refresh token is still usable
+        Token active = token("active", false, now.minus(ACCESS_LIFETIME).minus(Duration.ofMinutes(5)));
+        entityManager.flush();
+        entityManager.clear();
+
+        job.purge();
+
+        List<Long> remaining = tokenRepository.findAll().stream().map(Token::getId).sorted().toList();
+        assertEquals(List.of(grace.getId(), active.getId()), remaining);
+        assertEquals(6, job.stats().lastRunDeleted());
+    }
+
+    @Test
+    void expiredBacklogDoesNotStarveRotatedRows() {
+        Instant now = Instant.now();
+        for (int i = 0; i < 3; i++) {
+            token("expired-" + i, false, now.minus(REFRESH_LIFETIME).minus(Duration.ofMinutes(i + 1)));
+            token("rotated-" + i, true, now.minus(ACCESS_LIFETIME).minus(Duration.ofMinutes(i + 1)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        properties.setMaxBatchesPerRun(1);
+
+        job.purge();
+
+        // One batch of the two oldest rows from each query
+        List<String> remaining = tokenRepository.findAll().stream().map(Token::getAccessToken).sorted().toList();
+        assertEquals(List.of("access-expired-0", "access-rotated-0"), remaining);
+        assertEquals(4, job.stats().lastRunDeleted());
+    }
+
+    private Token token(String value, boolean blacklisted, Instant createdAt) {
+        Token token = Token.builder()
+                .user(user)
+                .accessToken("access-" + value)
+                .refreshToken("refresh-" + value)
+                .accessTokenHash(TokenDigest.sha256Hex("access-" + value))
+                .refreshTokenHash(TokenDigest.sha256Hex("refresh-" + value))
+                .blacklisted(blacklisted)
+                .createdAt(createdAt)
+                .build();
+        entityManager.persist(token);
+        return token;
+    }
+}
@@ -0,0 +1,104 @@
+package unitbv.devops.authenticationapi.token;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionTemplate;
+import unitbv.devops.authenticationapi.config.TokenWriteBehindProperties;
+import unitbv.devops.authenticationapi.user.entity.User;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenWriteBehindTest {
+
+    private final TokenRepository tokenRepository = mock(TokenRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private TokenWriteBehind writeBehind;
+
+    @AfterEach
+    void tearDown() {
+        writeBehind.shutdown();
+    }
+
+    @Test
+    void fullQueueInsertsSynchronously() {
+        TokenWriteBehindProperties properties = new TokenWriteBehindProperties();
+        // Not enabled: no flusher, so the first token stays queued
+        properties.setMaxPending(1);
+        writeBehind = new TokenWriteBehind(tokenRepository, transactionTemplate, properties);
+
+        Token queued = token("queued");
+        Token overflow = token("overflow");
+        writeBehind.enqueue(queued);
+        writeBehind.enqueue(overflow);
+
+        verify(tokenRepository, never()).save(queued);
+        verify(tokenRepository).save(overflow);
+        assertTrue(writeBehind.findPendingByAccessHash(queued.getAccessTokenHash()).isPresent());
+        assertFalse(writeBehind.findPendingByAccessHash(overflow.getAccessTokenHash()).isPresent());
+    }
+
+    @Test
+    void failedBatchIsInsertedRowByRowAndStaysVisibleUntilCommitted() {
+        TokenWriteBehindProperties properties = new TokenWriteBehindProperties();
+        properties.setEnabled(true);
+        properties.setMaxDelayMs(50);
+        properties.setRetryDelayMs(10);
+        doAnswer(invocation -> {
+            throw new DataIntegrityViolationException("duplicate access_token_hash");
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        Token duplicate = token("duplicate");
+        Token flaky = token("flaky");
+        AtomicInteger flakyAttempts = new AtomicInteger();
+        when(tokenRepository.save(any(Token.class))).thenAnswer(invocation -> {
+            Token token = invocation.getArgument(0);
+            if (token == duplicate) {
+                throw new DataIntegrityViolationException("duplicate access_token_hash");
+            }
+            if (flakyAttempts.getAndIncrement() == 0) {
+                // The database is briefly unavailable: the token must still be served from memory
+                assertTrue(writeBehind.findPendingByAccessHash(token.getAccessTokenHash()).isPresent());
+                throw new QueryTimeoutException("timeout");
+            }
+            return token;
+        });
+        writeBehind = new TokenWriteBehind(tokenRepository, transactionTemplate, properties);
+
+        writeBehind.enqueue(duplicate);
+        writeBehind.enqueue(flaky);
+
+        writeBehind.awaitPersisted(flaky.getRefreshTokenHash());
+
+        verify(tokenRepository, times(2)).save(flaky);
+        // A constraint violation is not retried; the token is dropped and its refresh finds no row
+        verify(tokenRepository, times(1)).save(duplicate);
+        verify(tokenRepository, never()).saveAll(anyList());
+        assertFalse(writeBehind.findPendingByAccessHash(flaky.getAccessTokenHash()).isPresent());
+        assertFalse(writeBehind.findPendingByAccessHash(duplicate.getAccessTokenHash()).isPresent());
+    }
+
+    private static Token token(String value) {
+        return Token.builder()
+                .user(User.builder().id("user-1").build())
+                .accessToken("access-" + value)
+                .refreshToken("refresh-" + value)
+                .accessTokenHash(TokenDigest.sha256Hex("access-" + value))
+                .refreshTokenHash(TokenDigest.sha256Hex("refresh-" + value))
+                .createdAt(Instant.now())
+                .build();
+    }
+}
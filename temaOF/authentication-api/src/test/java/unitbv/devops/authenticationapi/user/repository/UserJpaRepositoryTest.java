@@ -0,0 +1,63 @@
+package unitbv.devops.authenticationapi.user.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import unitbv.devops.authenticationapi.user.entity.Role;
+import unitbv.devops.authenticationapi.user.entity.User;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserJpaRepositoryTest {
+
+    private static final int USERS = 50;
+
+    @Autowired
+    private UserJpaRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void streamAllLoadsUsersAndRolesInOneStatement() {
+        for (int i = 0; i < USERS; i++) {
+            repository.save(User.builder()
+                    .id(String.format("user-%03d", i))
+                    .username("user" + i)
+                    .email("user" + i + "@example.com")
+                    .passwordHash("hash")
+                    .roles(i % 2 == 0 ? Set.of(Role.USER) : Set.of(Role.USER, Role.ADMIN))
+                    .createdAt(Instant.now())
+                    .enabled(true)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Map<String, Set<Role>> rolesById = new HashMap<>();
+        try (Stream<User> users = repository.streamAll()) {
+            users.forEach(user -> {
+                rolesById.put(user.getId(), Set.copyOf(user.getRoles()));
+                entityManager.detach(user);
+            });
+        }
+
+        assertEquals(USERS, rolesById.size());
+        assertEquals(Set.of(Role.USER, Role.ADMIN), rolesById.get("user-001"));
+        assertEquals(Set.of(Role.USER), rolesById.get("user-002"));
+        assertEquals(1, statistics.getPrepareStatementCount(), "roles must not be loaded with one select per user");
+    }
+}
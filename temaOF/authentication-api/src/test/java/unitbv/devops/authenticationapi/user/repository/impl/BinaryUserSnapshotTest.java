@@ -0,0 +1,98 @@
+package unitbv.devops.authenticationapi.user.repository.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import unitbv.devops.authenticationapi.user.entity.Role;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryUserSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsEveryField() throws IOException {
+        List<StoredUser> users = List.of(
+                new StoredUser("a", "alice", "alice@example.com", "hash-a", Set.of(Role.USER, Role.ADMIN),
+                        Instant.parse("2026-03-01T10:15:30.123456789Z"), true, 7),
+                new StoredUser("b", "bob", null, null, Set.of(), null, false, 0));
+        Path path = dir.resolve("users.bin");
+
+        BinaryUserSnapshot.write(path, users);
+        BinaryUserSnapshot snapshot = BinaryUserSnapshot.open(path);
+
+        assertEquals(BinaryUserSnapshot.VERSION, snapshot.version());
+        assertEquals(users, readAll(snapshot));
+    }
+
+    @Test
+    void readsVersionOneFilesWithTokenEpochZero() throws IOException {
+        Path path = dir.resolve("users-v1.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(path))) {
+            out.writeInt(0x55535253);
+            out.writeInt(1);
+            out.writeInt(1);
+            byte[] record = versionOneRecord();
+            out.writeInt(record.length);
+            out.write(record);
+        }
+
+        BinaryUserSnapshot snapshot = BinaryUserSnapshot.open(path);
+
+        assertEquals(1, snapshot.version());
+        assertEquals(List.of(new StoredUser("a", "alice", "alice@example.com", "hash-a", Set.of(Role.USER),
+                Instant.ofEpochSecond(1_700_000_000L, 42), true, 0)), readAll(snapshot));
+    }
+
+    @Test
+    void rejectsUnknownVersions() throws IOException {
+        Path path = dir.resolve("users-v9.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(path))) {
+            out.writeInt(0x55535253);
+            out.writeInt(9);
+            out.writeInt(0);
+        }
+
+        assertThrows(IllegalStateException.class, () -> BinaryUserSnapshot.open(path));
+    }
+
+    private static List<StoredUser> readAll(BinaryUserSnapshot snapshot) {
+        List<StoredUser> users = new ArrayList<>();
+        snapshot.forEachKey((offset, id, username, email) -> users.add(snapshot.read(offset)));
+        return users;
+    }
+
+    private static byte[] versionOneRecord() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream record = new DataOutputStream(bytes)) {
+            for (String value : List.of("a", "alice", "alice@example.com", "hash-a")) {
+                writeString(record, value);
+            }
+            record.writeByte(1);
+            writeString(record, Role.USER.name());
+            record.writeLong(1_700_000_000L);
+            record.writeInt(42);
+            record.writeByte(1);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,200 @@
+package unitbv.devops.authenticationapi.user.repository.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import unitbv.devops.authenticationapi.user.entity.Role;
+import unitbv.devops.authenticationapi.user.entity.User;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserJournalTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysPutsAndDeletesInOrder() {
+        Path journalPath = dir.resolve("users.json.journal");
+        try (UserJournal journal = open(journalPath, new TreeMap<>())) {
+            journal.appendPut(user("a", "alice", 0)).join();
+            journal.appendPut(user("b", "bob", 0)).join();
+            journal.appendPut(user("a", "alice", 3)).join();
+            journal.appendDelete("b").join();
+            journal.appendPut(user("c", "carol", 0)).join();
+        }
+
+        Map<String, StoredUser> replayed = new TreeMap<>();
+        open(journalPath, replayed).close();
+
+        assertEquals(List.of("a", "c"), List.copyOf(replayed.keySet()));
+        assertEquals(3, replayed.get("a").tokenEpoch());
+    }
+
+    @Test
+    void dropsRecordTornMidWrite() throws Exception {
+        Path journalPath = dir.resolve("users.json.journal");
+        try (UserJournal journal = open(journalPath, new TreeMap<>())) {
+            journal.appendPut(user("a", "alice", 0)).join();
+            journal.appendDelete("a").join();
+            journal.appendPut(user("b", "bob", 0)).join();
+        }
+        long validLength = Files.size(journalPath);
+        byte[] last = (mapper.writeValueAsString(
+                new UserJournal.Entry(UserJournal.Op.PUT, "c", StoredUser.from(user("c", "carol", 0)))) + "\n")
+                .getBytes(StandardCharsets.UTF_8);
+        Files.write(journalPath, Arrays.copyOf(last, last.length / 2), StandardOpenOption.APPEND);
+
+        Map<String, StoredUser> replayed = new TreeMap<>();
+        try (UserJournal journal = open(journalPath, replayed)) {
+            assertEquals(List.of("b"), List.copyOf(replayed.keySet()));
+            // The torn bytes are cut off, so the next append starts on a clean line
+            assertEquals(validLength, Files.size(journalPath));
+            journal.appendPut(user("d", "dave", 0)).join();
+        }
+
+        Map<String, StoredUser> reopened = new TreeMap<>();
+        open(journalPath, reopened).close();
+        assertEquals(List.of("b", "d"), List.copyOf(reopened.keySet()));
+    }
+
+    @Test
+    void compactionSnapshotsStateAndDeletesOldSegments() throws Exception {
+        Path journalPath = dir.resolve("users.json.journal");
+        Map<String, StoredUser> live = new TreeMap<>();
+        AtomicReference<List<StoredUser>> snapshot = new AtomicReference<>(List.of());
+        CountDownLatch compacted = new CountDownLatch(1);
+
+        try (UserJournal journal = new UserJournal(journalPath, mapper, 3,
+                () -> new ArrayList<>(live.values()),
+                users -> {
+                    snapshot.set(users);
+                    compacted.countDown();
+                })) {
+            journal.replayAndOpen(stored -> live.put(stored.id(), stored), live::remove);
+            // Applied in memory before the append, as UserRepositoryFile does under its write lock
+            for (User user : List.of(user("a", "alice", 0), user("b", "bob", 0), user("c", "carol", 0))) {
+                live.put(user.getId(), StoredUser.from(user));
+                journal.appendPut(user).join();
+            }
+            assertTrue(compacted.await(5, TimeUnit.SECONDS));
+            live.remove("a");
+            journal.appendDelete("a").join();
+        }
+
+        assertEquals(3, snapshot.get().size());
+        assertFalse(Files.exists(journalPath), "segment 0 is dropped once the snapshot is written");
+        assertTrue(Files.exists(dir.resolve("users.json.journal.1")));
+
+        // Restart: the snapshot plus the remaining segment give the live state back
+        Map<String, StoredUser> restored = new TreeMap<>();
+        snapshot.get().forEach(stored -> restored.put(stored.id(), stored));
+        open(journalPath, restored).close();
+        assertEquals(List.of("b", "c"), List.copyOf(restored.keySet()));
+    }
+
+    @Test
+    void replaysSegmentsLeftByAnInterruptedCompaction() throws Exception {
+        Path journalPath = dir.resolve("users.json.journal");
+        writeSegment(journalPath,
+                new UserJournal.Entry(UserJournal.Op.PUT, "a", StoredUser.from(user("a", "alice", 0))),
+                new UserJournal.Entry(UserJournal.Op.PUT, "b", StoredUser.from(user("b", "bob", 0))));
+        writeSegment(dir.resolve("users.json.journal.1"),
+                new UserJournal.Entry(UserJournal.Op.PUT, "a", StoredUser.from(user("a", "alice", 2))),
+                new UserJournal.Entry(UserJournal.Op.DELETE, "b", null));
+
+        // The snapshot already has the newer state; replaying both segments in order must not undo it
+        Map<String, StoredUser> replayed = new TreeMap<>();
+        replayed.put("a", StoredUser.from(user("a", "alice", 2)));
+        try (UserJournal journal = open(journalPath, replayed)) {
+            journal.appendPut(user("c", "carol", 0)).join();
+        }
+
+        assertEquals(List.of("a"), List.copyOf(replayed.keySet()));
+        assertEquals(2, replayed.get("a").tokenEpoch());
+        // New appends go to the newest segment
+        assertTrue(Files.readString(dir.resolve("users.json.journal.1")).contains("carol"));
+    }
+
+    @Test
+    void appendsRacingCloseAllComplete() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            Path journalPath = dir.resolve("race-" + round + ".journal");
+            UserJournal journal = open(journalPath, new TreeMap<>());
+            List<CompletableFuture<Void>> appended = new CopyOnWriteArrayList<>();
+            List<Thread> appenders = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                String prefix = round + "-" + t + "-";
+                Thread appender = new Thread(() -> {
+                    try {
+                        for (int i = 0; ; i++) {
+                            appended.add(journal.appendPut(user(prefix + i, "user" + prefix + i, 0)));
+                        }
+                    } catch (IllegalStateException closed) {
+                        // Refused after close, as expected
+                    }
+                });
+                appender.start();
+                appenders.add(appender);
+            }
+            Thread.sleep(5);
+            journal.close();
+            for (Thread appender : appenders) {
+                appender.join();
+            }
+
+            // Written or failed, but never left pending
+            for (CompletableFuture<Void> future : appended) {
+                assertTrue(future.isDone(), "append left pending after close");
+            }
+        }
+    }
+
+    private UserJournal open(Path journalPath, Map<String, StoredUser> state) {
+        UserJournal journal = new UserJournal(journalPath, mapper, Long.MAX_VALUE, List::of, users -> {});
+        journal.replayAndOpen(stored -> state.put(stored.id(), stored), state::remove);
+        return journal;
+    }
+
+    private void writeSegment(Path path, UserJournal.Entry... entries) throws Exception {
+        StringBuilder lines = new StringBuilder();
+        for (UserJournal.Entry entry : entries) {
+            lines.append(mapper.writeValueAsString(entry)).append('\n');
+        }
+        Files.writeString(path, lines);
+    }
+
+    private static User user(String id, String username, long tokenEpoch) {
+        return User.builder()
+                .id(id)
+                .username(username)
+                .email(username + "@example.com")
+                .passwordHash("hash")
+                .roles(Set.of(Role.USER))
+                .createdAt(Instant.parse("2026-01-01T00:00:00Z"))
+                .enabled(true)
+                .tokenEpoch(tokenEpoch)
+                .build();
+    }
+}
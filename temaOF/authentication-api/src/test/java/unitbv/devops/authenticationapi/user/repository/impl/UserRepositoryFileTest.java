@@ -0,0 +1,62 @@
+package unitbv.devops.authenticationapi.user.repository.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import unitbv.devops.authenticationapi.user.config.UserStorageProperties;
+import unitbv.devops.authenticationapi.user.entity.Role;
+import unitbv.devops.authenticationapi.user.entity.User;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserRepositoryFileTest {
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void incrementTokenEpochReplacesTheUserInsteadOfMutatingIt() {
+        UserStorageProperties props = new UserStorageProperties();
+        props.setFilePath(dir.resolve("users.json").toString());
+
+        try (UserRepositoryFile repository = new UserRepositoryFile(mapper, props)) {
+            repository.insert(User.builder()
+                    .id("a")
+                    .username("alice")
+                    .email("alice@example.com")
+                    .passwordHash("hash")
+                    .roles(Set.of(Role.USER))
+                    .createdAt(Instant.parse("2026-01-01T00:00:00Z"))
+                    .enabled(true)
+                    .build());
+            User before = repository.findById("a").orElseThrow();
+
+            assertTrue(repository.incrementTokenEpoch("a", true));
+
+            // A reader holding the old reference keeps seeing a consistent user
+            assertEquals(0, before.getTokenEpoch());
+            assertTrue(before.isEnabled());
+            User after = repository.findById("a").orElseThrow();
+            assertEquals(1, after.getTokenEpoch());
+            assertFalse(after.isEnabled());
+            assertEquals("alice", after.getUsername());
+            assertEquals(after.getId(), repository.findByUsername("alice").orElseThrow().getId());
+            assertFalse(repository.incrementTokenEpoch("missing", false));
+        }
+
+        // Replayed from the journal after a restart
+        try (UserRepositoryFile repository = new UserRepositoryFile(mapper, props)) {
+            User restored = repository.findById("a").orElseThrow();
+            assertEquals(1, restored.getTokenEpoch());
+            assertFalse(restored.isEnabled());
+        }
+    }
+}
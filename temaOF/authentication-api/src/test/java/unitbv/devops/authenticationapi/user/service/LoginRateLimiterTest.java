@@ -0,0 +1,138 @@
+package unitbv.devops.authenticationapi.user.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import unitbv.devops.authenticationapi.config.LoginThrottleProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toNanos(1));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void ipBucketRefusesBurstAndRefills() {
+        LoginRateLimiter limiter = limiter(3, 1000, 100, 60_000);
+
+        for (int i = 0; i < 3; i++) {
+            String username = "user" + i;
+            assertDoesNotThrow(() -> limiter.checkLogin("10.0.0.1", username));
+        }
+        LoginThrottledException refused = assertThrows(LoginThrottledException.class,
+                () -> limiter.checkLogin("10.0.0.1", "user3"));
+        assertEquals(1, refused.getRetryAfterSeconds());
+        assertDoesNotThrow(() -> limiter.checkLogin("10.0.0.2", "user3"));
+
+        advanceMillis(1000);
+        assertDoesNotThrow(() -> limiter.checkLogin("10.0.0.1", "user4"));
+        assertThrows(LoginThrottledException.class, () -> limiter.checkLogin("10.0.0.1", "user5"));
+        assertEquals(2.0, meterRegistry.get("auth.login.throttled").tag("key", "ip").counter().count());
+    }
+
+    @Test
+    void usernameBucketCountsFailuresAcrossIpsAndRefills() {
+        LoginRateLimiter limiter = limiter(100, 1000, 2, 1500);
+
+        assertDoesNotThrow(() -> limiter.checkLogin("10.0.0.1", "alice"));
+        assertDoesNotThrow(() -> limiter.checkLogin("10.0.0.2", "Alice "));
+        LoginThrottledException refused = assertThrows(LoginThrottledException.class,
+                () -> limiter.checkLogin("10.0.0.3", "ALICE"));
+        // 1.5 s until the next token, rounded up
+        assertEquals(2, refused.getRetryAfterSeconds());
+        assertDoesNotThrow(() -> limiter.checkLogin("10.0.0.3", "bob"));
+
+        advanceMillis(1000);
+        assertEquals(1, assertThrows(LoginThrottledException.class,
+                () -> limiter.checkLogin("10.0.0.4", "alice")).getRetryAfterSeconds());
+
+        advanceMillis(500);
+        assertDoesNotThrow(() -> limiter.checkLogin("10.0.0.4", "alice"));
+        assertEquals(2.0, meterRegistry.get("auth.login.throttled").tag("key", "username").counter().count());
+    }
+
+    @Test
+    void successfulLoginRefundsUsernameToken() {
+        LoginRateLimiter limiter = limiter(100, 1000, 1, 60_000);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.checkLogin("10.0.0.1", "alice");
+            limiter.recordSuccess("alice");
+        }
+        limiter.checkLogin("10.0.0.1", "alice");
+        assertThrows(LoginThrottledException.class, () -> limiter.checkLogin("10.0.0.1", "alice"));
+    }
+
+    @Test
+    void parallelAttemptsFromManyIpsShareUsernameBudget() throws Exception {
+        LoginRateLimiter limiter = limiter(100, 1000, 5, 60_000);
+
+        List<Callable<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            String ip = "10.0.1." + i;
+            attempts.add(() -> {
+                try {
+                    limiter.checkLogin(ip, "alice");
+                    return true;
+                } catch (LoginThrottledException e) {
+                    return false;
+                }
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            int passed = 0;
+            for (Future<Boolean> attempt : executor.invokeAll(attempts)) {
+                if (attempt.get()) {
+                    passed++;
+                }
+            }
+            assertEquals(5, passed);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void disabledLimiterNeverRefuses() {
+        LoginThrottleProperties properties = properties(1, 60_000, 1, 60_000);
+        properties.setEnabled(false);
+        LoginRateLimiter limiter = new LoginRateLimiter(properties, meterRegistry, now::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertDoesNotThrow(() -> limiter.checkLogin("10.0.0.1", "alice"));
+        }
+    }
+
+    private LoginRateLimiter limiter(int ipCapacity, long ipRefillMs, int usernameCapacity, long usernameRefillMs) {
+        return new LoginRateLimiter(properties(ipCapacity, ipRefillMs, usernameCapacity, usernameRefillMs),
+                meterRegistry, now::get);
+    }
+
+    private static LoginThrottleProperties properties(int ipCapacity, long ipRefillMs,
+                                                      int usernameCapacity, long usernameRefillMs) {
+        LoginThrottleProperties properties = new LoginThrottleProperties();
+        properties.setEnabled(true);
+        properties.setIpCapacity(ipCapacity);
+        properties.setIpRefillMs(ipRefillMs);
+        properties.setUsernameCapacity(usernameCapacity);
+        properties.setUsernameRefillMs(usernameRefillMs);
+        return properties;
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
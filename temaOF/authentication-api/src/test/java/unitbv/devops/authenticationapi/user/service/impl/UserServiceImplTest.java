@@ -0,0 +1,63 @@
+package unitbv.devops.authenticationapi.user.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import unitbv.devops.authenticationapi.dto.auth.AuthenticationResponse;
+import unitbv.devops.authenticationapi.dto.auth.RegisterRequest;
+import unitbv.devops.authenticationapi.dto.auth.TokenRefreshRequest;
+import unitbv.devops.authenticationapi.user.service.UserService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The full service on the in-memory "local" profile, so the conditional updates run against a real database
+@SpringBootTest
+@ActiveProfiles("local")
+class UserServiceImplTest {
+
+    private static final String PASSWORD = "test-password";
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void concurrentRefreshesOfOnePairRotateItOnce() throws Exception {
+        int rounds = 20;
+        try (ExecutorService pool = Executors.newFixedThreadPool(2)) {
+            for (int round = 0; round < rounds; round++) {
+                AuthenticationResponse issued = register();
+                TokenRefreshRequest request = new TokenRefreshRequest(issued.accessToken(), issued.refreshToken());
+                CyclicBarrier start = new CyclicBarrier(2);
+
+                List<Future<Optional<AuthenticationResponse>>> refreshes = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    refreshes.add(pool.submit(() -> {
+                        start.await();
+                        return userService.refresh(request);
+                    }));
+                }
+
+                int succeeded = 0;
+                for (Future<Optional<AuthenticationResponse>> refresh : refreshes) {
+                    succeeded += refresh.get().isPresent() ? 1 : 0;
+                }
+                assertEquals(1, succeeded, "round " + round + ": exactly one refresh may spend the pair");
+            }
+        }
+    }
+
+    private AuthenticationResponse register() {
+        String name = "u" + UUID.randomUUID().toString().substring(0, 12);
+        return userService.register(new RegisterRequest(name, name + "@example.com", PASSWORD)).orElseThrow();
+    }
+}